@@ -0,0 +1,111 @@
+package com.yelp.android.bento.benchmark;
+
+import com.yelp.android.bento.utils.AccordionList;
+import com.yelp.android.bento.utils.AccordionList.Cursor;
+import com.yelp.android.bento.utils.AccordionList.RangedValue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the {@link AccordionList} operations used by a ComponentGroup: modifications in
+ * the middle of the list and position lookups, both sequential (scrolling) and random.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccordionListBenchmark {
+
+    /** The number of entries in the list. */
+    @Param({"100", "1000", "10000"})
+    public int mEntries;
+
+    private final Cursor<Integer> mCursor = new Cursor<>();
+    private AccordionList<Integer> mList;
+    private List<Integer> mValues;
+    private int[] mSizes;
+    private int[] mLocations;
+    private int mNextLocation;
+    private int mSequentialLocation;
+    private int mToggle;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(42);
+        mValues = new ArrayList<>(mEntries);
+        mSizes = new int[mEntries];
+        for (int i = 0; i < mEntries; i++) {
+            mValues.add(i);
+            mSizes[i] = random.nextInt(5);
+        }
+        mList = new AccordionList<>();
+        mList.addAll(0, mValues, mSizes);
+
+        mLocations = new int[1024];
+        for (int i = 0; i < mLocations.length; i++) {
+            mLocations[i] = random.nextInt(mList.span().mUpper);
+        }
+        mNextLocation = 0;
+        mSequentialLocation = 0;
+    }
+
+    @Benchmark
+    public int addThenRemoveInMiddle() {
+        int index = mEntries / 2;
+        mList.add(index, -1, 3);
+        mList.remove(index);
+        return mList.size();
+    }
+
+    @Benchmark
+    public int setInMiddle() {
+        int index = mEntries / 2;
+        mList.set(index, index, ++mToggle & 3);
+        return mList.span().mUpper;
+    }
+
+    @Benchmark
+    public RangedValue<Integer> rangedValueAtRandom() {
+        return mList.rangedValueAt(mLocations[mNextLocation++ & 1023]);
+    }
+
+    @Benchmark
+    public RangedValue<Integer> rangedValueAtSequential() {
+        if (++mSequentialLocation == mList.span().mUpper) {
+            mSequentialLocation = 0;
+        }
+        return mList.rangedValueAt(mSequentialLocation);
+    }
+
+    @Benchmark
+    public int findSequential() {
+        if (++mSequentialLocation == mList.span().mUpper) {
+            mSequentialLocation = 0;
+        }
+        return mList.find(mSequentialLocation, mCursor).mOffset;
+    }
+
+    @Benchmark
+    public AccordionList<Integer> addAll() {
+        AccordionList<Integer> list = new AccordionList<>();
+        list.addAll(0, mValues, mSizes);
+        return list;
+    }
+
+    @Benchmark
+    public AccordionList.Snapshot<Integer> setThenSnapshot() {
+        int index = mEntries / 2;
+        mList.set(index, index, ++mToggle & 3);
+        return mList.snapshot();
+    }
+}
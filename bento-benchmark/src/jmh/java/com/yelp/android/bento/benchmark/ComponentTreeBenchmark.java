@@ -0,0 +1,178 @@
+package com.yelp.android.bento.benchmark;
+
+import android.view.View;
+import android.view.ViewGroup;
+import com.yelp.android.bento.core.Component;
+import com.yelp.android.bento.core.ComponentGroup;
+import com.yelp.android.bento.core.ComponentViewHolder;
+import com.yelp.android.bento.utils.AccordionList.Cursor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the bookkeeping a tree of {@link ComponentGroup}s does when components are added,
+ * removed or change their item count, and for the position lookups done for every bound item, at
+ * several tree sizes and depths.
+ *
+ * <p>The groups are the real ones. ComponentGroup does not depend on RecyclerView itself, only on
+ * a few of its types (SpanSizeLookup, ListUpdateCallback, DiffUtil) and Android's Trace, which are
+ * only shipped with the Android runtime or as AARs; this module replaces them with the minimal
+ * stand-ins in src/stubs. The leaf components have no item keys, so no diffs are calculated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ComponentTreeBenchmark {
+
+    /** The number of children of every group. */
+    @Param({"4", "16"})
+    public int mFanOut;
+
+    /** The number of nested group levels. */
+    @Param({"1", "2", "4"})
+    public int mDepth;
+
+    private final Cursor<Component> mCursor = new Cursor<>();
+    private final Random mRandom = new Random(42);
+    private ComponentGroup mRoot;
+    private List<ComponentGroup> mLeafGroups;
+    private List<ItemsComponent> mLeaves;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        mLeafGroups = new ArrayList<>();
+        mLeaves = new ArrayList<>();
+        mRoot = build(mDepth);
+    }
+
+    @Benchmark
+    public int notifyItemCountChange() {
+        ItemsComponent leaf = randomLeaf();
+        leaf.insertItem();
+        leaf.removeItem();
+        return mRoot.getCount();
+    }
+
+    @Benchmark
+    public int notifyItemChange() {
+        ItemsComponent leaf = randomLeaf();
+        leaf.notifyItemRangeChanged(0, leaf.getCount());
+        return mRoot.getCount();
+    }
+
+    @Benchmark
+    public int addThenRemoveComponent() {
+        ComponentGroup group = randomLeafGroup();
+        int index = group.getSize() / 2;
+        group.addComponent(index, new ItemsComponent(2));
+        group.remove(index);
+        return mRoot.getCount();
+    }
+
+    @Benchmark
+    public Component findComponentWithIndex() {
+        return mRoot.findComponentWithIndex(randomPosition(), mCursor).mValue;
+    }
+
+    @Benchmark
+    public Class<? extends ComponentViewHolder> getHolderType() {
+        return mRoot.getHolderType(randomPosition());
+    }
+
+    @Benchmark
+    public int getSpanSize() {
+        return mRoot.getSpanSizeLookup().getSpanSize(randomPosition());
+    }
+
+    private int randomPosition() {
+        return mRandom.nextInt(mRoot.getCount());
+    }
+
+    private ComponentGroup randomLeafGroup() {
+        return mLeafGroups.get(mRandom.nextInt(mLeafGroups.size()));
+    }
+
+    private ItemsComponent randomLeaf() {
+        return mLeaves.get(mRandom.nextInt(mLeaves.size()));
+    }
+
+    private ComponentGroup build(int depth) {
+        ComponentGroup group = new ComponentGroup();
+        for (int i = 0; i < mFanOut; i++) {
+            if (depth == 1) {
+                ItemsComponent leaf = new ItemsComponent(1 + (i & 3));
+                mLeaves.add(leaf);
+                group.addComponent(leaf);
+            } else {
+                group.addComponent(build(depth - 1));
+            }
+        }
+        if (depth == 1) {
+            mLeafGroups.add(group);
+        }
+        return group;
+    }
+
+    /** A component with a number of items that can change. */
+    private static final class ItemsComponent extends Component {
+
+        private int mCount;
+
+        private ItemsComponent(int count) {
+            mCount = count;
+        }
+
+        private void insertItem() {
+            mCount++;
+            notifyItemRangeInserted(mCount - 1, 1);
+        }
+
+        private void removeItem() {
+            mCount--;
+            notifyItemRangeRemoved(mCount, 1);
+        }
+
+        @Override
+        public Object getPresenter(int position) {
+            return null;
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return position;
+        }
+
+        @Override
+        public int getCount() {
+            return mCount;
+        }
+
+        @Override
+        public Class<? extends ComponentViewHolder> getHolderType(int position) {
+            return ItemViewHolder.class;
+        }
+    }
+
+    /** Never created, the benchmarks do not inflate or bind views. */
+    private static final class ItemViewHolder extends ComponentViewHolder<Object, Object> {
+
+        @Override
+        public View inflate(ViewGroup parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void bind(Object presenter, Object element) {}
+    }
+}
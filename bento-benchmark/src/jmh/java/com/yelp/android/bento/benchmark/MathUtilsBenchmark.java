@@ -0,0 +1,41 @@
+package com.yelp.android.bento.benchmark;
+
+import com.yelp.android.bento.utils.MathUtils;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks for {@link MathUtils#lcm(int[])}, which computes the lanes of a ComponentGroup. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MathUtilsBenchmark {
+
+    /** The number of lane counts, i.e. components in the group. */
+    @Param({"2", "8", "32", "256"})
+    public int mInputs;
+
+    private int[] mLanes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        mLanes = new int[mInputs];
+        for (int i = 0; i < mInputs; i++) {
+            mLanes[i] = 1 + random.nextInt(6);
+        }
+    }
+
+    @Benchmark
+    public int lcm() {
+        // lcm() reduces its input in place, and ComponentGroup passes a fresh array every time.
+        return MathUtils.lcm(mLanes.clone());
+    }
+}
@@ -0,0 +1,4 @@
+package android.content;
+
+/** Stands in for the Android class on the JVM. */
+public class Context {}
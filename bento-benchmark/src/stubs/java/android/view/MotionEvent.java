@@ -0,0 +1,11 @@
+package android.view;
+
+/** Stands in for the Android class on the JVM. */
+public final class MotionEvent {
+
+    public static final int ACTION_DOWN = 0;
+
+    public int getAction() {
+        return ACTION_DOWN;
+    }
+}
@@ -0,0 +1,32 @@
+package android.view;
+
+import android.content.Context;
+
+/** Stands in for the Android class on the JVM. Views are never created in the benchmarks. */
+public class View {
+
+    private final Context mContext;
+    private ViewGroup.LayoutParams mLayoutParams;
+
+    public View(Context context) {
+        mContext = context;
+    }
+
+    public Context getContext() {
+        return mContext;
+    }
+
+    public ViewGroup.LayoutParams getLayoutParams() {
+        return mLayoutParams;
+    }
+
+    public void setLayoutParams(ViewGroup.LayoutParams params) {
+        mLayoutParams = params;
+    }
+
+    public void setOnTouchListener(OnTouchListener listener) {}
+
+    public interface OnTouchListener {
+        boolean onTouch(View v, MotionEvent event);
+    }
+}
@@ -0,0 +1,22 @@
+package android.view;
+
+import android.content.Context;
+
+/** Stands in for the Android class on the JVM. */
+public class ViewGroup extends View {
+
+    public ViewGroup(Context context) {
+        super(context);
+    }
+
+    public static class LayoutParams {
+
+        public int width;
+        public int height;
+
+        public LayoutParams(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
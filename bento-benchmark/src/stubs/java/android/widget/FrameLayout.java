@@ -0,0 +1,19 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+/** Stands in for the Android class on the JVM. */
+public class FrameLayout extends ViewGroup {
+
+    public FrameLayout(Context context) {
+        super(context);
+    }
+
+    public static class LayoutParams extends ViewGroup.LayoutParams {
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.View;
+
+/** Stands in for the Android class on the JVM. */
+public final class Space extends View {
+
+    public Space(Context context) {
+        super(context);
+    }
+}
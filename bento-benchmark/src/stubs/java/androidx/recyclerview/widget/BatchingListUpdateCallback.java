@@ -0,0 +1,99 @@
+package androidx.recyclerview.widget;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Stands in for the RecyclerView library class, which is only shipped as an AAR. Merges
+ * consecutive updates of the same kind the same way the library does, so that the benchmarks
+ * dispatch as many updates as an app would.
+ */
+public class BatchingListUpdateCallback implements ListUpdateCallback {
+
+    private static final int TYPE_NONE = 0;
+    private static final int TYPE_ADD = 1;
+    private static final int TYPE_REMOVE = 2;
+    private static final int TYPE_CHANGE = 3;
+
+    private final ListUpdateCallback mWrapped;
+    private int mLastEventType = TYPE_NONE;
+    private int mLastEventPosition = -1;
+    private int mLastEventCount = -1;
+    private Object mLastEventPayload = null;
+
+    public BatchingListUpdateCallback(@NonNull ListUpdateCallback callback) {
+        mWrapped = callback;
+    }
+
+    public void dispatchLastEvent() {
+        switch (mLastEventType) {
+            case TYPE_ADD:
+                mWrapped.onInserted(mLastEventPosition, mLastEventCount);
+                break;
+            case TYPE_REMOVE:
+                mWrapped.onRemoved(mLastEventPosition, mLastEventCount);
+                break;
+            case TYPE_CHANGE:
+                mWrapped.onChanged(mLastEventPosition, mLastEventCount, mLastEventPayload);
+                break;
+            default:
+                return;
+        }
+        mLastEventPayload = null;
+        mLastEventType = TYPE_NONE;
+    }
+
+    @Override
+    public void onInserted(int position, int count) {
+        if (mLastEventType == TYPE_ADD
+                && position >= mLastEventPosition
+                && position <= mLastEventPosition + mLastEventCount) {
+            mLastEventCount += count;
+            mLastEventPosition = Math.min(position, mLastEventPosition);
+            return;
+        }
+        dispatchLastEvent();
+        mLastEventPosition = position;
+        mLastEventCount = count;
+        mLastEventType = TYPE_ADD;
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        if (mLastEventType == TYPE_REMOVE
+                && mLastEventPosition >= position
+                && mLastEventPosition <= position + count) {
+            mLastEventCount += count;
+            mLastEventPosition = position;
+            return;
+        }
+        dispatchLastEvent();
+        mLastEventPosition = position;
+        mLastEventCount = count;
+        mLastEventType = TYPE_REMOVE;
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        dispatchLastEvent();
+        mWrapped.onMoved(fromPosition, toPosition);
+    }
+
+    @Override
+    public void onChanged(int position, int count, @Nullable Object payload) {
+        if (mLastEventType == TYPE_CHANGE
+                && !(position > mLastEventPosition + mLastEventCount
+                        || position + count < mLastEventPosition
+                        || mLastEventPayload != payload)) {
+            int previousEnd = mLastEventPosition + mLastEventCount;
+            mLastEventPosition = Math.min(position, mLastEventPosition);
+            mLastEventCount = Math.max(previousEnd, position + count) - mLastEventPosition;
+            return;
+        }
+        dispatchLastEvent();
+        mLastEventPosition = position;
+        mLastEventCount = count;
+        mLastEventPayload = payload;
+        mLastEventType = TYPE_CHANGE;
+    }
+}
@@ -0,0 +1,40 @@
+package androidx.recyclerview.widget;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Stands in for the RecyclerView library class, which is only shipped as an AAR. The benchmarks
+ * only use components without item keys, which ComponentGroup never diffs, so calculating a diff is
+ * not supported.
+ */
+public class DiffUtil {
+
+    private DiffUtil() {}
+
+    @NonNull
+    public static DiffResult calculateDiff(@NonNull Callback callback) {
+        throw new UnsupportedOperationException("DiffUtil is not available in the benchmarks");
+    }
+
+    public abstract static class Callback {
+
+        public abstract int getOldListSize();
+
+        public abstract int getNewListSize();
+
+        public abstract boolean areItemsTheSame(int oldItemPosition, int newItemPosition);
+
+        public abstract boolean areContentsTheSame(int oldItemPosition, int newItemPosition);
+
+        @Nullable
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return null;
+        }
+    }
+
+    public static class DiffResult {
+
+        public void dispatchUpdatesTo(@NonNull ListUpdateCallback updateCallback) {}
+    }
+}
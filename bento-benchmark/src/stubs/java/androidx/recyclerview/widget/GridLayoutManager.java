@@ -0,0 +1,11 @@
+package androidx.recyclerview.widget;
+
+/** Stands in for the RecyclerView library class, which is only shipped as an AAR. */
+public class GridLayoutManager {
+
+    /** Same contract as the library class, without its span index caches. */
+    public abstract static class SpanSizeLookup {
+
+        public abstract int getSpanSize(int position);
+    }
+}
@@ -0,0 +1,15 @@
+package androidx.recyclerview.widget;
+
+import androidx.annotation.Nullable;
+
+/** Same interface as the one of the RecyclerView library, which is only shipped as an AAR. */
+public interface ListUpdateCallback {
+
+    void onInserted(int position, int count);
+
+    void onRemoved(int position, int count);
+
+    void onMoved(int fromPosition, int toPosition);
+
+    void onChanged(int position, int count, @Nullable Object payload);
+}
@@ -0,0 +1,7 @@
+package androidx.recyclerview.widget;
+
+/** Stands in for the RecyclerView library class, which is only shipped as an AAR. */
+public class RecyclerView {
+
+    public static final int NO_POSITION = -1;
+}
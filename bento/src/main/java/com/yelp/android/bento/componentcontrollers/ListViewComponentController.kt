@@ -15,7 +15,10 @@ import com.yelp.android.bento.core.ComponentController
 import com.yelp.android.bento.core.ComponentGroup
 import com.yelp.android.bento.core.ComponentViewHolder
 import com.yelp.android.bento.core.ComponentVisibilityListener
+import com.yelp.android.bento.core.ViewHolderFactories
+import com.yelp.android.bento.core.ViewTypeRegistry
 import com.yelp.android.bento.utils.AccordionList
+import com.yelp.android.bento.utils.BentoSettings
 
 private const val MAX_ITEM_TYPES_PER_ADAPTER = 4096
 private const val SMOOTH_SCROLL_DURATION = 300 // In milliseconds.
@@ -116,11 +119,22 @@ class ListViewComponentController(val listView: ListView) :
         return components.remove(component)
     }
 
+    override fun setComponents(components: List<Component>): ComponentController {
+        val added = components.filterNot { it in this.components }
+        this.components.setComponents(components)
+        added.forEach { componentVisibilityListener.onComponentAdded(it) }
+        return this
+    }
+
     override fun clear() {
         components.clear()
         componentVisibilityListener.clear()
     }
 
+    override fun beginBatch() = components.beginBatch()
+
+    override fun commitBatch() = components.commitBatch()
+
     override fun scrollToComponent(component: Component, smoothScroll: Boolean) {
         scrollToComponentInternal(component, smoothScroll)
     }
@@ -157,9 +171,10 @@ class ListViewComponentController(val listView: ListView) :
      * The internal adapter used to manage the position of components in the list view.
      */
     inner class Adapter : BaseAdapter() {
-        private val itemViewTypes = mutableListOf<Any>()
+        private val itemViewTypes = ViewTypeRegistry<Any>()
         internal val itemTypes = mutableMapOf<Int, Int>()
         internal val areEnabled = mutableMapOf<Int, Boolean>()
+        private val stableIds = BentoSettings.stableIdsEnabled
 
         // List adapter
         override fun getView(position: Int, convertView: View?, parent: ViewGroup): View {
@@ -184,7 +199,7 @@ class ListViewComponentController(val listView: ListView) :
         private fun createFreshView(position: Int, parent: ViewGroup): View {
             val holderType: Class<out ComponentViewHolder<Any?, Any?>> =
                     components.getHolderType(position)
-            val holder = holderType.newInstance()
+            val holder = ViewHolderFactories.create(holderType)
             val view = if (holder is ListViewComponentViewHolder) {
                 holder.inflate(components.getPresenter(position) as ListAdapterComponent.Wrapper,
                         parent)
@@ -234,20 +249,19 @@ class ListViewComponentController(val listView: ListView) :
 
             return when (holderType) {
                 ListAdapter.IGNORE_ITEM_VIEW_TYPE -> ListAdapter.IGNORE_ITEM_VIEW_TYPE
-                in itemViewTypes -> itemViewTypes.indexOf(holderType)
                 else -> {
-                    itemViewTypes.add(holderType)
+                    val viewType = itemViewTypes.viewTypeOf(holderType)
                     // If we are reaching the limit of types per adapter, we can't keep increasing
                     // the number. We should instead ignore the item view type, but recreate a
                     // fresh adapter with a count to 0.
-                    if (itemViewTypes.size >= MAX_ITEM_TYPES_PER_ADAPTER) {
+                    if (viewType >= MAX_ITEM_TYPES_PER_ADAPTER - 1) {
                         if (!isRecreating) {
                             listView.post { recreate() }
                             isRecreating = true
                         }
                         ListAdapter.IGNORE_ITEM_VIEW_TYPE
                     } else {
-                        itemViewTypes.size - 1
+                        viewType
                     }
                 }
             }.also {
@@ -257,9 +271,10 @@ class ListViewComponentController(val listView: ListView) :
 
         override fun getItem(position: Int) = components.getItem(position)
 
-        override fun hasStableIds() = false
+        override fun hasStableIds() = stableIds
 
-        override fun getItemId(position: Int) = position.toLong()
+        override fun getItemId(position: Int) =
+                if (stableIds) components.getItemId(position) else position.toLong()
 
         override fun getCount() = components.span
 
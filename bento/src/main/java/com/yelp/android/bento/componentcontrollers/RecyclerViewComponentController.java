@@ -1,6 +1,8 @@
 package com.yelp.android.bento.componentcontrollers;
 
 import android.util.Log;
+import android.view.Choreographer;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -8,13 +10,13 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearSmoothScroller;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.RecyclerView.AdapterDataObserver;
 import androidx.recyclerview.widget.RecyclerView.OnScrollListener;
 import androidx.recyclerview.widget.RecyclerView.Orientation;
 import androidx.recyclerview.widget.RecyclerView.ViewHolder;
 
-import com.google.common.collect.HashBiMap;
 import com.yelp.android.bento.core.AsyncInflationBridge;
 import com.yelp.android.bento.core.AsyncInflationStrategy;
 import com.yelp.android.bento.core.BentoLayoutManager;
@@ -27,20 +29,32 @@ import com.yelp.android.bento.core.ComponentGroup.ComponentGroupDataObserver;
 import com.yelp.android.bento.core.ComponentViewHolder;
 import com.yelp.android.bento.core.ComponentVisibilityListener;
 import com.yelp.android.bento.core.ComponentVisibilityListener.LayoutManagerHelper;
+import com.yelp.android.bento.core.GapViewHolder;
 import com.yelp.android.bento.core.ListItemTouchCallback;
 import com.yelp.android.bento.core.OnItemMovedPositionListener;
 import com.yelp.android.bento.core.SmartAsyncInflationCache;
+import com.yelp.android.bento.core.ViewHolderFactories;
 import com.yelp.android.bento.core.ViewHolderWrapper;
+import com.yelp.android.bento.core.ViewTypeRegistry;
 import com.yelp.android.bento.utils.AccordionList.Range;
 import com.yelp.android.bento.utils.AccordionList.RangedValue;
+import com.yelp.android.bento.utils.BentoMetrics;
+import com.yelp.android.bento.utils.BentoMetrics.Event;
 import com.yelp.android.bento.utils.BentoSettings;
+import com.yelp.android.bento.utils.BentoTrace;
+import com.yelp.android.bento.utils.BentoTrace.Section;
+import com.yelp.android.bento.utils.PendingUpdates;
+import com.yelp.android.bento.utils.RecycledViewPoolSizer;
 import com.yelp.android.bento.utils.Sequenceable;
+import com.yelp.android.bento.utils.ViewTypeTable;
 
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -55,10 +69,16 @@ public class RecyclerViewComponentController
     private final ComponentGroup mComponentGroup;
     private final Map<Component, Set<Class<? extends ComponentViewHolder>>>
             mComponentViewHolderSetMap;
-    private final Map<Class<? extends ComponentViewHolder>, Integer> mViewTypeReferenceCounts;
-    private final HashBiMap<Class<? extends ComponentViewHolder>, Integer> mViewTypeMap;
+    private final ViewTypeRegistry<Class<? extends ComponentViewHolder>> mViewTypeRegistry =
+            ViewTypeRegistry.shared();
+
+    /** The view type of each adapter position, see {@link #getViewTypeFromComponent(int)}. */
+    private final ViewTypeTable mViewTypeTable = new ViewTypeTable();
+
+    // Whether the size of the view type table was checked since the last change. Notifications
+    // arrive one at a time during a batch, so the size can only be checked once they are all in.
+    private boolean mViewTypeTableVerified;
     private final RecyclerView mRecyclerView;
-    private final RecyclerView.RecycledViewPool mRecycledViewPool;
     private ComponentVisibilityListener mComponentVisibilityListener;
     private OnScrollListener mOnScrollListener;
     private AdapterDataObserver mAdapterDataObserver;
@@ -69,7 +89,36 @@ public class RecyclerViewComponentController
 
     @RecyclerView.Orientation private int mOrientation;
 
+    // Set while the changes of a batch are sent to the adapter, so that the lanes are only set up
+    // once for the whole batch.
+    private boolean mCommittingBatch;
+
+    private final AdapterUpdateCallback mAdapterUpdateCallback = new AdapterUpdateCallback();
+
+    /** Whether changes are held back until the next frame, see {@link #setCoalesceUpdates}. */
+    private boolean mCoalesceUpdates;
+
+    /** The changes held back until the next frame when {@link #mCoalesceUpdates} is set. */
+    private final PendingUpdates mPendingAdapterUpdates = new PendingUpdates();
+
+    private boolean mAdapterUpdatesScheduled;
+
+    private final Choreographer.FrameCallback mAdapterUpdatesFrameCallback =
+            new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    mAdapterUpdatesScheduled = false;
+                    flushAdapterUpdates();
+                }
+            };
+
     private final boolean mAsyncInflationEnabled;
+
+    // The components whose views are being inflated before they are added. A component is only
+    // added if it is still pending when its inflation finishes, so that removing it or setting
+    // the components in the meantime is not undone by the late addition.
+    private final Set<Component> mPendingAsyncAdditions = new HashSet<>();
+
     // This will be used to track how many of each view holder was needed when async inflation is
     // enabled.
     private String mAsyncCacheKey = null;
@@ -128,37 +177,42 @@ public class RecyclerViewComponentController
         }
         mOrientation = orientation;
         mRecyclerViewAdapter = new RecyclerViewAdapter();
+        mRecyclerViewAdapter.setHasStableIds(BentoSettings.getStableIdsEnabled());
         mComponentGroup = new ComponentGroup();
         mComponentGroup.registerComponentDataObserver(
                 new ComponentDataObserver() {
                     @Override
                     public void onChanged() {
-                        mRecyclerViewAdapter.notifyDataSetChanged();
-                        setupComponentSpans();
+                        // Items can't be followed through a change of everything, so it is never
+                        // held back, see toCurrentPosition. It replaces any held back change.
+                        mPendingAdapterUpdates.clear();
+                        mAdapterUpdateCallback.onDataSetChanged();
                     }
 
                     @Override
                     public void onItemRangeChanged(int positionStart, int itemCount) {
-                        mRecyclerViewAdapter.notifyItemRangeChanged(positionStart, itemCount);
-                        setupComponentSpans();
+                        getAdapterUpdateCallback().onChanged(positionStart, itemCount, null);
+                    }
+
+                    @Override
+                    public void onItemRangeChanged(
+                            int positionStart, int itemCount, @Nullable Object payload) {
+                        getAdapterUpdateCallback().onChanged(positionStart, itemCount, payload);
                     }
 
                     @Override
                     public void onItemRangeInserted(int positionStart, int itemCount) {
-                        mRecyclerViewAdapter.notifyItemRangeInserted(positionStart, itemCount);
-                        setupComponentSpans();
+                        getAdapterUpdateCallback().onInserted(positionStart, itemCount);
                     }
 
                     @Override
                     public void onItemRangeRemoved(int positionStart, int itemCount) {
-                        mRecyclerViewAdapter.notifyItemRangeRemoved(positionStart, itemCount);
-                        setupComponentSpans();
+                        getAdapterUpdateCallback().onRemoved(positionStart, itemCount);
                     }
 
                     @Override
                     public void onItemMoved(int fromPosition, int toPosition) {
-                        mRecyclerViewAdapter.notifyItemMoved(fromPosition, toPosition);
-                        setupComponentSpans();
+                        getAdapterUpdateCallback().onMoved(fromPosition, toPosition);
                     }
                 });
         mComponentGroup.registerComponentGroupObserver(
@@ -175,11 +229,21 @@ public class RecyclerViewComponentController
                 });
 
         mComponentViewHolderSetMap = new HashMap<>();
-        mViewTypeReferenceCounts = new HashMap<>();
-        mViewTypeMap = HashBiMap.create();
         mRecyclerView = recyclerView;
         mLayoutManager =
                 new BentoLayoutManager(recyclerView.getContext(), mComponentGroup, mOrientation);
+        final GridLayoutManager.SpanSizeLookup spanSizeLookup =
+                mLayoutManager.getSpanSizeLookup();
+        mLayoutManager.setSpanSizeLookup(
+                new GridLayoutManager.SpanSizeLookup() {
+                    @Override
+                    public int getSpanSize(int position) {
+                        int current = toCurrentPosition(position);
+                        return current == RecyclerView.NO_POSITION
+                                ? 1
+                                : spanSizeLookup.getSpanSize(current);
+                    }
+                });
         mSmoothScroller =
                 new LinearSmoothScroller(mRecyclerView.getContext()) {
                     @Override
@@ -190,10 +254,23 @@ public class RecyclerViewComponentController
 
         mItemTouchHelper = new ItemTouchHelper(new ListItemTouchCallback(mComponentGroup, this));
         mItemTouchHelper.attachToRecyclerView(mRecyclerView);
+        // Touch events are handled before the frame callbacks, so the adapter has to catch up
+        // before the recycler view acts on them.
+        mRecyclerView.addOnItemTouchListener(
+                new RecyclerView.SimpleOnItemTouchListener() {
+                    @Override
+                    public boolean onInterceptTouchEvent(
+                            @NonNull RecyclerView recyclerView, @NonNull MotionEvent event) {
+                        flushAdapterUpdates();
+                        return false;
+                    }
+                });
 
         mRecyclerView.setAdapter(mRecyclerViewAdapter);
         mRecyclerView.setLayoutManager(mLayoutManager);
-        mRecycledViewPool = mRecyclerView.getRecycledViewPool();
+        if (BentoSettings.getSharedViewPoolsEnabled()) {
+            SharedRecycledViewPools.attach(mRecyclerView);
+        }
         setupComponentSpans();
         addVisibilityListeners();
     }
@@ -235,12 +312,7 @@ public class RecyclerViewComponentController
         if (!mAsyncInflationEnabled) {
             addComponentInternal(component);
         } else {
-            mAsyncInflationBridge.asyncInflateViewsForComponent(
-                    component,
-                    () -> {
-                        addComponentInternal(component);
-                        return null;
-                    });
+            addComponentAsync(component, () -> addComponentInternal(component));
         }
         return this;
     }
@@ -251,12 +323,7 @@ public class RecyclerViewComponentController
         if (!mAsyncInflationEnabled) {
             addComponentInternal(componentGroup);
         } else {
-            mAsyncInflationBridge.asyncInflateViewsForComponent(
-                    componentGroup,
-                    () -> {
-                        addComponentInternal(componentGroup);
-                        return null;
-                    });
+            addComponentAsync(componentGroup, () -> addComponentInternal(componentGroup));
         }
         return this;
     }
@@ -268,12 +335,7 @@ public class RecyclerViewComponentController
         if (!mAsyncInflationEnabled) {
             addComponentInternal(index, component);
         } else {
-            mAsyncInflationBridge.asyncInflateViewsForComponent(
-                    component,
-                    () -> {
-                        addComponentInternal(index, component);
-                        return null;
-                    });
+            addComponentAsync(component, () -> addComponentInternal(index, component));
         }
         return this;
     }
@@ -284,12 +346,7 @@ public class RecyclerViewComponentController
         if (!mAsyncInflationEnabled) {
             addComponentInternal(index, componentGroup);
         } else {
-            mAsyncInflationBridge.asyncInflateViewsForComponent(
-                    componentGroup,
-                    () -> {
-                        addComponentInternal(index, componentGroup);
-                        return null;
-                    });
+            addComponentAsync(componentGroup, () -> addComponentInternal(index, componentGroup));
         }
         return this;
     }
@@ -306,14 +363,7 @@ public class RecyclerViewComponentController
             }
         } else {
             for (Component component : components) {
-                mAsyncInflationBridge.asyncInflateViewsForComponent(
-                        component,
-                        () -> {
-                            addComponentInternal(component);
-                            shareViewPool(component);
-                            mComponentVisibilityListener.onComponentAdded(component);
-                            return null;
-                        });
+                addComponentAsync(component, () -> addComponentInternal(component));
             }
         }
         return this;
@@ -338,7 +388,7 @@ public class RecyclerViewComponentController
     @Override
     public Component remove(int index) {
         if (mAsyncInflationEnabled) {
-            mAsyncInflationBridge.trackComponentRemoval(mComponentGroup.get(index));
+            cancelAsyncAddition(mComponentGroup.get(index));
         }
         return mComponentGroup.remove(index);
     }
@@ -346,21 +396,89 @@ public class RecyclerViewComponentController
     @Override
     public boolean remove(@NonNull Component component) {
         if (mAsyncInflationEnabled) {
-            mAsyncInflationBridge.trackComponentRemoval(component);
+            cancelAsyncAddition(component);
         }
         return mComponentGroup.remove(component);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The components are added right away, even if async inflation is enabled. Components
+     * still waiting to be added asynchronously are not added anymore: they are added now if they
+     * are in the new list, and their inflation is cancelled otherwise.
+     */
+    @NonNull
+    @Override
+    public RecyclerViewComponentController setComponents(
+            @NonNull List<? extends Component> components) {
+        List<Component> added = new ArrayList<>();
+        for (Component component : components) {
+            if (!mComponentGroup.contains(component)) {
+                added.add(component);
+            }
+        }
+        if (mAsyncInflationEnabled) {
+            Set<Component> kept = new HashSet<>(components);
+            for (int i = 0; i < mComponentGroup.getSize(); i++) {
+                if (!kept.contains(mComponentGroup.get(i))) {
+                    mAsyncInflationBridge.trackComponentRemoval(mComponentGroup.get(i));
+                }
+            }
+            for (Component pending : mPendingAsyncAdditions) {
+                if (!kept.contains(pending)) {
+                    mAsyncInflationBridge.trackComponentRemoval(pending);
+                }
+            }
+            mPendingAsyncAdditions.clear();
+        }
+
+        beginBatch();
+        try {
+            mComponentGroup.setComponents(components);
+        } finally {
+            commitBatch();
+        }
+        for (Component component : added) {
+            shareViewPool(component);
+            mComponentVisibilityListener.onComponentAdded(component);
+        }
+        return this;
+    }
+
     @Override
     public void clear() {
         mComponentGroup.clear();
         removeVisibilityListeners();
         addVisibilityListeners();
         if (mAsyncInflationEnabled) {
+            mPendingAsyncAdditions.clear();
             mAsyncInflationBridge.cancelAllInflationJobs();
         }
     }
 
+    @Override
+    public void beginBatch() {
+        mComponentGroup.beginBatch();
+    }
+
+    @Override
+    public void commitBatch() {
+        boolean traced = BentoTrace.beginSection(Section.DISPATCH_UPDATES);
+        mCommittingBatch = true;
+        try {
+            mComponentGroup.commitBatch();
+        } finally {
+            mCommittingBatch = false;
+            if (traced) {
+                BentoTrace.endSection();
+            }
+        }
+        if (!mComponentGroup.isInBatch()) {
+            setupComponentSpans();
+        }
+    }
+
     @Override
     public void scrollToComponent(@NonNull Component component, boolean smoothScroll) {
         int componentIndex = mComponentGroup.findComponentOffset(component);
@@ -390,6 +508,8 @@ public class RecyclerViewComponentController
         int fromIndex = fromAbsoluteIndex - componentMoved.mRange.mLower;
         int toIndex = toAbsoluteIndex - componentMoved.mRange.mLower;
         componentMoved.mValue.onItemsMoved(fromIndex, toIndex);
+        // The dragged view is looked up by adapter position right away.
+        flushAdapterUpdates();
 
         // Bind is not called again, so we need to go through and properly set all the positions.
         int currentIndex =
@@ -491,6 +611,28 @@ public class RecyclerViewComponentController
         addComponentInternal(INVALID_COMPONENT_INDEX, component);
     }
 
+    /**
+     * Inflates the views of the component in the background and then runs the addition, unless
+     * the component was removed or set with {@link #setComponents(List)} in the meantime.
+     */
+    private void addComponentAsync(@NonNull Component component, @NonNull Runnable addition) {
+        mPendingAsyncAdditions.add(component);
+        mAsyncInflationBridge.asyncInflateViewsForComponent(
+                component,
+                () -> {
+                    if (mPendingAsyncAdditions.remove(component)) {
+                        addition.run();
+                    }
+                    return null;
+                });
+    }
+
+    /** Cancels the inflation of the component's views and its addition if it is still pending. */
+    private void cancelAsyncAddition(@NonNull Component component) {
+        mPendingAsyncAdditions.remove(component);
+        mAsyncInflationBridge.trackComponentRemoval(component);
+    }
+
     private void addVisibilityListeners() {
         mComponentVisibilityListener =
                 new ComponentVisibilityListener(
@@ -544,27 +686,75 @@ public class RecyclerViewComponentController
      */
     @SuppressWarnings("unchecked") // Unchecked Component generics.
     private int getViewTypeFromComponent(int position) {
-        Class<? extends ComponentViewHolder> holderType =
-                mComponentGroup.getHolderTypeInternal(position);
-        Component component = mComponentGroup.componentAt(position);
-
-        if (!mViewTypeMap.containsKey(holderType)) {
-            mViewTypeMap.put(holderType, holderType.hashCode());
-            Set<Class<? extends ComponentViewHolder>> viewHolderSet =
-                    mComponentViewHolderSetMap.get(component);
-            if (viewHolderSet == null) {
-                viewHolderSet = new HashSet<>();
-                mComponentViewHolderSetMap.put(component, viewHolderSet);
+        if (mPendingAdapterUpdates.isPending()) {
+            return getHeldBackViewType(position);
+        }
+        if (!mViewTypeTableVerified) {
+            // The table is only off if a notification did not match the actual change.
+            if (mViewTypeTable.size() != mComponentGroup.getSpan()) {
+                mViewTypeTable.reset(mComponentGroup.getSpan());
             }
-            viewHolderSet.add(holderType);
+            mViewTypeTableVerified = true;
+        }
+        if (mViewTypeTable.isResolved(position)) {
+            return mViewTypeTable.get(position);
+        }
 
-            if (!mViewTypeReferenceCounts.containsKey(holderType)) {
-                mViewTypeReferenceCounts.put(holderType, 0);
+        boolean traced = BentoTrace.beginSection(Section.RESOLVE_VIEW_TYPE);
+        try {
+            int viewType = resolveViewType(position);
+            mViewTypeTable.set(position, viewType);
+            return viewType;
+        } finally {
+            if (traced) {
+                BentoTrace.endSection();
             }
-            mViewTypeReferenceCounts.put(holderType, mViewTypeReferenceCounts.get(holderType) + 1);
         }
+    }
+
+    /**
+     * Gets the view type of an adapter position while changes are held back, see {@link
+     * #setCoalesceUpdates}. It is always the one of the item now at the position, so that the
+     * recycler view replaces any view holder of another type instead of keeping another item's
+     * view. The view type table is only updated when the changes are sent, so it is not used
+     * until then: its positions are the ones the recycler view asks about, but not its items.
+     */
+    private int getHeldBackViewType(int position) {
+        int current = mPendingAdapterUpdates.toCurrentPosition(position);
+        if (current == RecyclerView.NO_POSITION) {
+            // The item is gone and will be removed once the changes are sent. Until then, it is
+            // shown as an empty gap.
+            return mViewTypeRegistry.viewTypeOf(GapViewHolder.class);
+        }
+        return resolveViewType(current);
+    }
+
+    /**
+     * @param position A position in the components.
+     * @return The view type of the item at the position.
+     */
+    private int resolveViewType(int position) {
+        Class<? extends ComponentViewHolder> holderType =
+                mComponentGroup.getHolderTypeInternal(position);
+        Component component = mComponentGroup.componentAt(position);
 
-        return mViewTypeMap.get(holderType);
+        Set<Class<? extends ComponentViewHolder>> viewHolderSet =
+                mComponentViewHolderSetMap.get(component);
+        if (viewHolderSet == null) {
+            viewHolderSet = new HashSet<>();
+            mComponentViewHolderSetMap.put(component, viewHolderSet);
+        }
+        // Each component holds one reference to each of its view holder types.
+        int viewType;
+        if (viewHolderSet.add(holderType)) {
+            viewType = mViewTypeRegistry.acquire(holderType);
+            getPoolSizer()
+                    .setCapacityHint(
+                            viewType, component.getRecycledViewCapacityHint(holderType));
+        } else {
+            viewType = mViewTypeRegistry.viewTypeOf(holderType);
+        }
+        return viewType;
     }
 
     /**
@@ -578,12 +768,8 @@ public class RecyclerViewComponentController
                 mComponentViewHolderSetMap.get(component);
         if (viewHolderSet != null) {
             for (Class<? extends ComponentViewHolder> viewHolder : viewHolderSet) {
-                int remainingRefs = mViewTypeReferenceCounts.get(viewHolder) - 1;
-                if (remainingRefs == 0) {
-                    mViewTypeMap.remove(viewHolder);
-                    mViewTypeReferenceCounts.remove(viewHolder);
-                } else {
-                    mViewTypeReferenceCounts.put(viewHolder, remainingRefs);
+                if (mViewTypeRegistry.release(viewHolder)) {
+                    getPoolSizer().onViewTypeReleased(mRecyclerView, mViewTypeRegistry, viewHolder);
                 }
             }
         }
@@ -599,7 +785,7 @@ public class RecyclerViewComponentController
      */
     private void shareViewPool(@NonNull Component component) {
         if (component instanceof SharesViewPool) {
-            ((SharesViewPool) component).sharePool(mRecycledViewPool);
+            ((SharesViewPool) component).sharePool(mRecyclerView.getRecycledViewPool());
         } else if (component instanceof ComponentGroup) {
             ComponentGroup group = (ComponentGroup) component;
             for (int i = 0; i < group.getSize(); i++) {
@@ -609,25 +795,110 @@ public class RecyclerViewComponentController
     }
 
     /**
-     * Uses reflections to instantiate a ComponentViewHolder of the specified type. For this reason,
-     * all subclasses of ComponentViewHolder must have a no-arg constructor. <br>
+     * Instantiates a ComponentViewHolder of the specified type through {@link
+     * ViewHolderFactories}. Types without a registered factory must have a no-arg constructor. <br>
      * See: {@link ComponentViewHolder}
      *
      * @throws RuntimeException if the specified view holder type could not be instantiated.
      */
     public static ComponentViewHolder constructViewHolder(
             Class<? extends ComponentViewHolder> viewHolderType) {
-        try {
-            return viewHolderType.newInstance();
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new RuntimeException("Failed to instantiate view holder", e);
-        }
+        return ViewHolderFactories.create(viewHolderType);
+    }
+
+    /**
+     * The recycled view pool can be replaced after the controller is created, e.g. by a carousel
+     * sharing the pool of its parent, so the sizer is looked up every time.
+     */
+    @NonNull
+    private RecycledViewPoolSizer getPoolSizer() {
+        return RecycledViewPoolSizer.of(mRecyclerView.getRecycledViewPool());
     }
 
     private void setupComponentSpans() {
         mLayoutManager.setSpanCount(mComponentGroup.getNumberLanes());
     }
 
+    /**
+     * Turns on or off the coalescing of changes. When on, the changes notified by the components
+     * are not sent to the recycler view right away but held back until the next frame, with
+     * adjacent and overlapping ranges merged. Screens where many components change at once, e.g.
+     * when several network responses arrive together, then cost one layout pass per frame instead
+     * of one per change. Off by default.
+     *
+     * <p>Until the changes are sent, the adapter keeps serving the items the recycler view knows
+     * about, so that layout passes in the meantime, e.g. from scrolling or prefetching, stay
+     * consistent. Items removed since are shown as empty gaps until then.
+     *
+     * <p>Must be called from the main thread. Turning it off sends the changes held back so far.
+     */
+    public void setCoalesceUpdates(boolean coalesceUpdates) {
+        mCoalesceUpdates = coalesceUpdates;
+        if (!coalesceUpdates) {
+            flushAdapterUpdates();
+        }
+    }
+
+    /** @return True if changes are held back until the next frame. */
+    public boolean isCoalescingUpdates() {
+        return mCoalesceUpdates;
+    }
+
+    @NonNull
+    private ListUpdateCallback getAdapterUpdateCallback() {
+        if (!mCoalesceUpdates) {
+            return mAdapterUpdateCallback;
+        }
+        scheduleAdapterUpdates();
+        return mPendingAdapterUpdates;
+    }
+
+    private void scheduleAdapterUpdates() {
+        if (!mAdapterUpdatesScheduled) {
+            mAdapterUpdatesScheduled = true;
+            Choreographer.getInstance().postFrameCallback(mAdapterUpdatesFrameCallback);
+        }
+    }
+
+    /**
+     * Maps an adapter position to the position of the same item in the components. They differ
+     * while changes are held back by {@link #setCoalesceUpdates}: the recycler view only knows
+     * about the items from before them, and may still lay them out until the next frame.
+     *
+     * @return The position in the components, or {@link RecyclerView#NO_POSITION} if the item
+     *     has been removed since.
+     */
+    private int toCurrentPosition(int adapterPosition) {
+        return mPendingAdapterUpdates.isPending()
+                ? mPendingAdapterUpdates.toCurrentPosition(adapterPosition)
+                : adapterPosition;
+    }
+
+    /** Sends the changes held back by {@link #setCoalesceUpdates} to the adapter, in one go. */
+    private void flushAdapterUpdates() {
+        if (!mPendingAdapterUpdates.isPending()) {
+            return;
+        }
+        boolean traced = BentoTrace.beginSection(Section.DISPATCH_UPDATES);
+        mCommittingBatch = true;
+        try {
+            mPendingAdapterUpdates.dispatchTo(mAdapterUpdateCallback);
+        } finally {
+            mCommittingBatch = false;
+            if (traced) {
+                BentoTrace.endSection();
+            }
+        }
+        setupComponentSpans();
+    }
+
+    private void onComponentsChanged() {
+        mViewTypeTableVerified = false;
+        if (!mCommittingBatch) {
+            setupComponentSpans();
+        }
+    }
+
     /**
      * Rather than allowing the RecyclerViewComponentController to extend the
      * RecyclerView.Adapter<ViewHolderWrapper> and exposing all of its public final methods that we
@@ -651,12 +922,48 @@ public class RecyclerViewComponentController
                 new HashSet<>();
 
         @NonNull
-        @SuppressWarnings("unchecked") // Unchecked Component generics.
         @Override
         public ViewHolderWrapper onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            boolean traced =
+                    BentoTrace.beginSection(Section.INFLATE, mViewTypeRegistry.keyOf(viewType));
+            try {
+                return createViewHolderTimed(parent, viewType);
+            } finally {
+                if (traced) {
+                    BentoTrace.endSection();
+                }
+            }
+        }
+
+        @NonNull
+        private ViewHolderWrapper createViewHolderTimed(@NonNull ViewGroup parent, int viewType) {
+            BentoMetrics metrics = BentoSettings.getMetrics();
+            if (metrics == null) {
+                return createViewHolder(parent, viewType);
+            }
+            long startNanos = System.nanoTime();
+            ViewHolderWrapper holder = createViewHolder(parent, viewType);
+            metrics.onViewHolderEvent(
+                    Event.INFLATE,
+                    mViewTypeRegistry.keyOf(viewType),
+                    null,
+                    System.nanoTime() - startNanos);
+            return holder;
+        }
+
+        @NonNull
+        @SuppressWarnings("unchecked") // Unchecked Component generics.
+        private ViewHolderWrapper createViewHolder(@NonNull ViewGroup parent, int viewType) {
             ComponentViewHolder viewHolder = null;
             Class<? extends ComponentViewHolder> viewHolderType =
-                    mViewTypeMap.inverse().get(viewType);
+                    mViewTypeRegistry.keyOf(viewType);
+            RecycledViewPoolSizer poolSizer = getPoolSizer();
+            poolSizer.onViewHolderCreated();
+            if (BentoSettings.getLoggingEnabled()) {
+                Log.i(
+                        BentoSettings.BENTO_TAG,
+                        "% recycled views reused: " + poolSizer.getHitRate() + " FOR: " + parent);
+            }
             if (mAsyncInflationEnabled) {
                 viewHolder = mAsyncInflationBridge.getViewHolder(viewHolderType);
             }
@@ -713,15 +1020,108 @@ public class RecyclerViewComponentController
         @SuppressWarnings("unchecked") // Unchecked Component generics.
         @Override
         public void onBindViewHolder(@NonNull ViewHolderWrapper holder, int position) {
-            holder.bind(
-                    mComponentGroup.getPresenter(position),
-                    position,
-                    mComponentGroup.getItem(position));
+            if (holder.wasRecycled()) {
+                getPoolSizer().onViewHolderReused();
+            }
+            int current = toCurrentPosition(position);
+            if (current == RecyclerView.NO_POSITION) {
+                bindRemovedItem(holder, position);
+                return;
+            }
+            position = current;
+            BentoMetrics metrics = BentoSettings.getMetrics();
+            long startNanos = metrics == null ? 0 : System.nanoTime();
+            boolean traced = beginBindSection(holder, position);
+            try {
+                holder.bind(
+                        mComponentGroup.getPresenter(position),
+                        position,
+                        mComponentGroup.getItem(position));
+            } finally {
+                if (traced) {
+                    BentoTrace.endSection();
+                }
+            }
+            if (metrics != null) {
+                recordBind(metrics, holder, position, startNanos);
+            }
+        }
+
+        @SuppressWarnings("unchecked") // Unchecked Component generics.
+        @Override
+        public void onBindViewHolder(
+                @NonNull ViewHolderWrapper holder, int position, @NonNull List<Object> payloads) {
+            if (payloads.isEmpty()) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+            int current = toCurrentPosition(position);
+            if (current == RecyclerView.NO_POSITION) {
+                bindRemovedItem(holder, position);
+                return;
+            }
+            position = current;
+            BentoMetrics metrics = BentoSettings.getMetrics();
+            long startNanos = metrics == null ? 0 : System.nanoTime();
+            boolean traced = beginBindSection(holder, position);
+            try {
+                holder.bind(
+                        mComponentGroup.getPresenter(position),
+                        position,
+                        mComponentGroup.getItem(position),
+                        payloads);
+            } finally {
+                if (traced) {
+                    BentoTrace.endSection();
+                }
+            }
+            if (metrics != null) {
+                recordBind(metrics, holder, position, startNanos);
+            }
+        }
+
+        /**
+         * Binds an item removed since the changes held back by {@link #setCoalesceUpdates}, which
+         * has the view type of an empty gap until they are sent, see {@link
+         * #getHeldBackViewType(int)}. The gap is bound with no size, so that a gap taken from the
+         * pool doesn't keep the size of another one.
+         */
+        @SuppressWarnings("unchecked") // Unchecked ComponentViewHolder generics.
+        private void bindRemovedItem(@NonNull ViewHolderWrapper holder, int position) {
+            holder.bind(null, position, 0);
+        }
+
+        private boolean beginBindSection(@NonNull ViewHolderWrapper holder, int position) {
+            // Checked first so that the component is only looked up while tracing.
+            return BentoTrace.isEnabled()
+                    && BentoTrace.beginSection(
+                            Section.BIND,
+                            mComponentGroup.findComponentWithIndex(position).getClass(),
+                            mViewTypeRegistry.keyOf(holder.getItemViewType()));
+        }
+
+        private void recordBind(
+                @NonNull BentoMetrics metrics,
+                @NonNull ViewHolderWrapper holder,
+                int position,
+                long startNanos) {
+            long durationNanos = System.nanoTime() - startNanos;
+            // The component is remembered for the attach and recycle timings, which have no
+            // position to look it up with.
+            holder.setComponentType(mComponentGroup.findComponentWithIndex(position).getClass());
+            metrics.onViewHolderEvent(
+                    Event.BIND,
+                    mViewTypeRegistry.keyOf(holder.getItemViewType()),
+                    holder.getComponentType(),
+                    durationNanos);
         }
 
         @Override
         public int getItemCount() {
-            return mComponentGroup.getSpan();
+            // The view type table has as many items as the recycler view has been told about.
+            return mPendingAdapterUpdates.isPending()
+                    ? mViewTypeTable.size()
+                    : mComponentGroup.getSpan();
         }
 
         @Override
@@ -729,19 +1129,50 @@ public class RecyclerViewComponentController
             return getViewTypeFromComponent(position);
         }
 
+        @Override
+        public long getItemId(int position) {
+            if (!hasStableIds()) {
+                return RecyclerView.NO_ID;
+            }
+            int current = toCurrentPosition(position);
+            return current == RecyclerView.NO_POSITION
+                    ? RecyclerView.NO_ID
+                    : mComponentGroup.getItemId(current);
+        }
+
         @Override
         public void onViewAttachedToWindow(@NonNull ViewHolderWrapper holder) {
+            BentoMetrics metrics = BentoSettings.getMetrics();
+            long startNanos = metrics == null ? 0 : System.nanoTime();
             holder.onViewAttachedToWindow();
+            if (metrics != null) {
+                metrics.onViewHolderEvent(
+                        Event.ATTACH,
+                        mViewTypeRegistry.keyOf(holder.getItemViewType()),
+                        holder.getComponentType(),
+                        System.nanoTime() - startNanos);
+            }
+            getPoolSizer().onViewAttached(holder.getItemViewType());
         }
 
         @Override
         public void onViewDetachedFromWindow(@NonNull ViewHolderWrapper holder) {
             holder.onViewDetachedFromWindow();
+            getPoolSizer().onViewDetached(holder.getItemViewType());
         }
 
         @Override
         public void onViewRecycled(@NonNull ViewHolderWrapper holder) {
+            BentoMetrics metrics = BentoSettings.getMetrics();
+            long startNanos = metrics == null ? 0 : System.nanoTime();
             holder.onViewRecycled();
+            if (metrics != null) {
+                metrics.onViewHolderEvent(
+                        Event.RECYCLE,
+                        mViewTypeRegistry.keyOf(holder.getItemViewType()),
+                        holder.getComponentType(),
+                        System.nanoTime() - startNanos);
+            }
         }
 
         @Nullable
@@ -757,6 +1188,51 @@ public class RecyclerViewComponentController
         }
     }
 
+    /**
+     * Sends the changes of the components to the adapter, keeping the view type table in step with
+     * what the adapter has been told.
+     */
+    private final class AdapterUpdateCallback implements ListUpdateCallback {
+
+        void onDataSetChanged() {
+            mViewTypeTable.reset(mComponentGroup.getSpan());
+            mRecyclerViewAdapter.notifyDataSetChanged();
+            onComponentsChanged();
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            mViewTypeTable.onInserted(position, count);
+            mRecyclerViewAdapter.notifyItemRangeInserted(position, count);
+            onComponentsChanged();
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            mViewTypeTable.onRemoved(position, count);
+            mRecyclerViewAdapter.notifyItemRangeRemoved(position, count);
+            onComponentsChanged();
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            mViewTypeTable.onMoved(fromPosition, toPosition);
+            mRecyclerViewAdapter.notifyItemMoved(fromPosition, toPosition);
+            onComponentsChanged();
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            mViewTypeTable.onChanged(position, count, payload);
+            if (payload == null) {
+                mRecyclerViewAdapter.notifyItemRangeChanged(position, count);
+            } else {
+                mRecyclerViewAdapter.notifyItemRangeChanged(position, count, payload);
+            }
+            onComponentsChanged();
+        }
+    }
+
     private static class RecyclerViewLayoutManagerHelper implements LayoutManagerHelper {
 
         private final GridLayoutManager mLayoutManager;
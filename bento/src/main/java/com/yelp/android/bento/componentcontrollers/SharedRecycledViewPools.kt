@@ -0,0 +1,90 @@
+package com.yelp.android.bento.componentcontrollers
+
+import android.view.View
+import androidx.lifecycle.DefaultLifecycleObserver
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleOwner
+import androidx.lifecycle.findViewTreeLifecycleOwner
+import androidx.recyclerview.widget.RecyclerView
+import com.yelp.android.bento.utils.RecycledViewPoolSizer
+import java.util.WeakHashMap
+
+/**
+ * Keeps one [RecyclerView.RecycledViewPool] per [LifecycleOwner], usually the Activity, and shares
+ * it between all the recycler views of that owner. Pages of view pagers, nested components and
+ * carousels then reuse the view holders of each other instead of each inflating their own. View
+ * types are the same in every controller, see [com.yelp.android.bento.core.ViewTypeRegistry], so
+ * any of them can use the views in the pool.
+ *
+ * [RecyclerViewComponentController]s attach themselves when
+ * [com.yelp.android.bento.utils.BentoSettings.sharedViewPoolsEnabled] is turned on. The capacities
+ * of the pool a recycler view used before, see [RecycledViewPoolSizer], are carried over to the
+ * shared pool. The pool is cleared and dropped when the owner is destroyed.
+ *
+ * Must only be used from the main thread.
+ */
+object SharedRecycledViewPools {
+
+    private val pools = WeakHashMap<LifecycleOwner, RecyclerView.RecycledViewPool>()
+
+    /**
+     * @return The pool shared by the recycler views of the owner, created the first time it is
+     * asked for.
+     */
+    @JvmStatic
+    fun poolFor(owner: LifecycleOwner): RecyclerView.RecycledViewPool {
+        return pools.getOrPut(owner) {
+            RecyclerView.RecycledViewPool().also {
+                owner.lifecycle.addObserver(object : DefaultLifecycleObserver {
+                    override fun onDestroy(owner: LifecycleOwner) {
+                        pools.remove(owner)?.clear()
+                        owner.lifecycle.removeObserver(this)
+                    }
+                })
+            }
+        }
+    }
+
+    /**
+     * Makes the recycler view use the pool of the owner, with at least the capacities of its
+     * current pool. Does nothing once the owner is destroyed.
+     */
+    @JvmStatic
+    fun attach(recyclerView: RecyclerView, owner: LifecycleOwner) {
+        if (owner.lifecycle.currentState == Lifecycle.State.DESTROYED) {
+            return
+        }
+        val pool = poolFor(owner)
+        if (recyclerView.recycledViewPool !== pool) {
+            RecycledViewPoolSizer.of(recyclerView.recycledViewPool).copyCapacitiesTo(pool)
+            recyclerView.setRecycledViewPool(pool)
+        }
+    }
+
+    /**
+     * Makes the recycler view use the pool of its lifecycle owner: the owner of its view tree, or
+     * its context if that is a [LifecycleOwner]. If neither is known yet, the pool is attached
+     * once the recycler view is attached to a window.
+     */
+    @JvmStatic
+    fun attach(recyclerView: RecyclerView) {
+        val owner = findLifecycleOwner(recyclerView)
+        if (owner != null) {
+            attach(recyclerView, owner)
+            return
+        }
+        recyclerView.addOnAttachStateChangeListener(object : View.OnAttachStateChangeListener {
+            override fun onViewAttachedToWindow(v: View) {
+                recyclerView.removeOnAttachStateChangeListener(this)
+                findLifecycleOwner(recyclerView)?.let { attach(recyclerView, it) }
+            }
+
+            override fun onViewDetachedFromWindow(v: View) = Unit
+        })
+    }
+
+    private fun findLifecycleOwner(recyclerView: RecyclerView): LifecycleOwner? {
+        return recyclerView.findViewTreeLifecycleOwner()
+                ?: recyclerView.context as? LifecycleOwner
+    }
+}
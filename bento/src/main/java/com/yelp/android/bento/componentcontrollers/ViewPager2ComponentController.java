@@ -1,7 +1,5 @@
 package com.yelp.android.bento.componentcontrollers;
 
-import static com.yelp.android.bento.componentcontrollers.RecyclerViewComponentController.constructViewHolder;
-
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
@@ -11,19 +9,22 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager.widget.ViewPager;
 import androidx.viewpager2.widget.ViewPager2;
 
-import com.google.common.collect.HashBiMap;
 import com.yelp.android.bento.core.Component;
 import com.yelp.android.bento.core.Component.ComponentDataObserver;
 import com.yelp.android.bento.core.ComponentController;
 import com.yelp.android.bento.core.ComponentGroup;
 import com.yelp.android.bento.core.ComponentGroup.ComponentGroupDataObserver;
 import com.yelp.android.bento.core.ComponentViewHolder;
+import com.yelp.android.bento.core.ViewHolderFactories;
 import com.yelp.android.bento.core.ViewHolderWrapper;
+import com.yelp.android.bento.core.ViewTypeRegistry;
 import com.yelp.android.bento.utils.AccordionList.Range;
+import com.yelp.android.bento.utils.BentoSettings;
 
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,19 +33,19 @@ import java.util.Set;
  */
 public class ViewPager2ComponentController extends RecyclerView.Adapter<ViewHolderWrapper> implements ComponentController {
 
-    private final HashBiMap<Class<? extends ComponentViewHolder>, Integer> mViewTypeMap;
+    private final ViewTypeRegistry<Class<? extends ComponentViewHolder>> mViewTypeRegistry =
+            ViewTypeRegistry.shared();
     private final Map<Component, Set<Class<? extends ComponentViewHolder>>>
             mComponentViewHolderSetMap;
-    private final Map<Class<? extends ComponentViewHolder>, Integer> mViewTypeReferenceCounts;
     private ComponentGroup mComponentGroup;
     private final ViewPager2 mViewPager;
 
     public ViewPager2ComponentController(@NonNull ViewPager2 viewPager2) {
         setComponentGroup(new ComponentGroup());
         mComponentViewHolderSetMap = new HashMap<>();
-        mViewTypeReferenceCounts = new HashMap<>();
-        mViewTypeMap = HashBiMap.create();
         mViewPager = viewPager2;
+        // Lets the view pager rebind the current pages on notifyDataSetChanged().
+        setHasStableIds(BentoSettings.getStableIdsEnabled());
         mViewPager.setAdapter(this);
     }
 
@@ -52,7 +53,7 @@ public class ViewPager2ComponentController extends RecyclerView.Adapter<ViewHold
     @Override
     public ViewHolderWrapper onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         ComponentViewHolder viewHolder =
-                constructViewHolder(mViewTypeMap.inverse().get(viewType));
+                ViewHolderFactories.create(mViewTypeRegistry.keyOf(viewType));
         return new ViewHolderWrapper(viewHolder.inflate(parent), viewHolder);
     }
 
@@ -161,23 +162,35 @@ public class ViewPager2ComponentController extends RecyclerView.Adapter<ViewHold
         return mComponentGroup.remove(component);
     }
 
+    @NonNull
+    @Override
+    public ComponentController setComponents(@NonNull List<? extends Component> components) {
+        mComponentGroup.setComponents(components);
+        return this;
+    }
+
     @Override
     public void clear() {
         mComponentGroup.clear();
     }
 
+    @Override
+    public void beginBatch() {
+        mComponentGroup.beginBatch();
+    }
+
+    @Override
+    public void commitBatch() {
+        mComponentGroup.commitBatch();
+    }
+
     @Override
     public void scrollToComponent(@NonNull Component component, boolean smoothScroll) {
         // We need to figure out which page the component belongs to. A component may be a page or
-        // within a page, so we iterate through all the pages and check if the component exists on
-        // that page.
-        for (int i = 0; i < getSize(); i++) {
-            Component page = get(i);
-            if (page == component
-                    || (page instanceof ComponentGroup
-                    && ((ComponentGroup) page).findComponentOffset(component) != -1)) {
-                mViewPager.setCurrentItem(i, smoothScroll);
-            }
+        // within a page, so we follow its parent groups up to the page.
+        int page = mComponentGroup.indexOfChildContaining(component);
+        if (page != -1) {
+            mViewPager.setCurrentItem(page, smoothScroll);
         }
     }
 
@@ -196,6 +209,11 @@ public class ViewPager2ComponentController extends RecyclerView.Adapter<ViewHold
         return getViewTypeFromComponent(position);
     }
 
+    @Override
+    public long getItemId(int position) {
+        return hasStableIds() ? mComponentGroup.getItemId(position) : RecyclerView.NO_ID;
+    }
+
     /**
      * Gets a view type from a {@link Component} for the specified position. This will return a
      * unique integer for each unique view type and the same integer for the same view types.
@@ -206,23 +224,35 @@ public class ViewPager2ComponentController extends RecyclerView.Adapter<ViewHold
                 mComponentGroup.getHolderTypeInternal(position);
         Component component = mComponentGroup.componentAt(position);
 
-        if (!mViewTypeMap.containsKey(holderType)) {
-            mViewTypeMap.put(holderType, holderType.hashCode());
-            Set<Class<? extends ComponentViewHolder>> viewHolderSet =
-                    mComponentViewHolderSetMap.get(component);
-            if (viewHolderSet == null) {
-                viewHolderSet = new HashSet<>();
-                mComponentViewHolderSetMap.put(component, viewHolderSet);
-            }
-            viewHolderSet.add(holderType);
+        Set<Class<? extends ComponentViewHolder>> viewHolderSet =
+                mComponentViewHolderSetMap.get(component);
+        if (viewHolderSet == null) {
+            viewHolderSet = new HashSet<>();
+            mComponentViewHolderSetMap.put(component, viewHolderSet);
+        }
+        // Each component holds one reference to each of its view holder types.
+        int viewType =
+                viewHolderSet.add(holderType)
+                        ? mViewTypeRegistry.acquire(holderType)
+                        : mViewTypeRegistry.viewTypeOf(holderType);
 
-            if (!mViewTypeReferenceCounts.containsKey(holderType)) {
-                mViewTypeReferenceCounts.put(holderType, 0);
+        return viewType;
+    }
+
+    /**
+     * Run after a component is removed from the controller. Releases the view types of the
+     * component.
+     *
+     * @param component The component that was removed.
+     */
+    private void cleanupComponent(Component component) {
+        Set<Class<? extends ComponentViewHolder>> viewHolderSet =
+                mComponentViewHolderSetMap.remove(component);
+        if (viewHolderSet != null) {
+            for (Class<? extends ComponentViewHolder> viewHolder : viewHolderSet) {
+                mViewTypeRegistry.release(viewHolder);
             }
-            mViewTypeReferenceCounts.put(holderType, mViewTypeReferenceCounts.get(holderType) + 1);
         }
-
-        return mViewTypeMap.get(holderType);
     }
 
     @Override
@@ -284,6 +314,7 @@ public class ViewPager2ComponentController extends RecyclerView.Adapter<ViewHold
 
                     @Override
                     public void onComponentRemoved(Component component) {
+                        cleanupComponent(component);
                         notifyDataSetChanged();
                     }
                 });
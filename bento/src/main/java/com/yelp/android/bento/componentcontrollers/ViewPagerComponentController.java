@@ -16,6 +16,7 @@ import com.yelp.android.bento.core.ComponentGroup.ComponentGroupDataObserver;
 import com.yelp.android.bento.utils.AccordionList.Range;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.jetbrains.annotations.NotNull;
 
@@ -146,23 +147,35 @@ public class ViewPagerComponentController extends PagerAdapter implements Compon
         return mComponentGroup.remove(component);
     }
 
+    @NonNull
+    @Override
+    public ComponentController setComponents(@NonNull List<? extends Component> components) {
+        mComponentGroup.setComponents(components);
+        return this;
+    }
+
     @Override
     public void clear() {
         mComponentGroup.clear();
     }
 
+    @Override
+    public void beginBatch() {
+        mComponentGroup.beginBatch();
+    }
+
+    @Override
+    public void commitBatch() {
+        mComponentGroup.commitBatch();
+    }
+
     @Override
     public void scrollToComponent(@NonNull Component component, boolean smoothScroll) {
         // We need to figure out which page the component belongs to. A component may be a page or
-        // within a page, so we iterate through all the pages and check if the component exists on
-        // that page.
-        for (int i = 0; i < getCount(); i++) {
-            Component page = get(i);
-            if (page == component
-                    || (page instanceof ComponentGroup
-                            && ((ComponentGroup) page).findComponentOffset(component) != -1)) {
-                mViewPager.setCurrentItem(i, smoothScroll);
-            }
+        // within a page, so we follow its parent groups up to the page.
+        int page = mComponentGroup.indexOfChildContaining(component);
+        if (page != -1) {
+            mViewPager.setCurrentItem(page, smoothScroll);
         }
     }
 
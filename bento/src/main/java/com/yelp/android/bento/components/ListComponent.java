@@ -1,5 +1,7 @@
 package com.yelp.android.bento.components;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -7,12 +9,23 @@ import androidx.annotation.CallSuper;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.DiffUtil.ItemCallback;
 import androidx.recyclerview.widget.GridLayoutManager.SpanSizeLookup;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import com.yelp.android.bento.R;
 import com.yelp.android.bento.core.Component;
 import com.yelp.android.bento.core.ComponentViewHolder;
+import com.yelp.android.bento.utils.BentoTrace;
+import com.yelp.android.bento.utils.BentoTrace.Section;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@link Component} for displaying homogeneous lists of data all using the same presenter object
@@ -32,6 +45,23 @@ public class ListComponent<P, T> extends Component {
     private OnItemMovedCallback<T> mOnItemMovedCallback = null;
     private boolean isReorderable = false;
 
+    @Nullable private ItemCallback<T> mItemDiffCallback;
+    private Executor mDiffExecutor;
+    private Executor mMainThreadExecutor;
+
+    /**
+     * The data passed to the latest {@link #setData(List)} whose diff has not been applied yet, or
+     * null if there is none.
+     */
+    @Nullable private List<T> mPendingData;
+
+    /**
+     * Incremented each time a diff is scheduled or abandoned, so that only the result of the
+     * latest diff is ever applied. Read from the diff thread to skip diffs superseded before they
+     * started.
+     */
+    private volatile int mMaxScheduledGeneration;
+
     /**
      * @param presenter The presenter used for {@link ListComponent} interactions.
      * @param listItemViewHolder The view holder used for each item in the list.
@@ -63,14 +93,87 @@ public class ListComponent<P, T> extends Component {
     }
 
     /**
-     * Updates the data items used in the list to create views.
+     * Updates the data items used in the list to create views. When an item diff callback is set,
+     * the new data only shows up once it was diffed against the current data.
      *
      * @param data The new data list to use.
+     * @see #setItemDiffCallback(ItemCallback)
      */
     public void setData(@NonNull List<T> data) {
-        mData.clear();
-        mData.addAll(data);
-        notifyDataChanged();
+        if (mItemDiffCallback == null) {
+            cancelPendingData();
+            mData.clear();
+            mData.addAll(data);
+            notifyDataChanged();
+            return;
+        }
+
+        // Both lists are copied so that the diff thread never sees them change.
+        final List<T> oldData = new ArrayList<>(mData);
+        final List<T> newData = new ArrayList<>(data);
+        final ItemCallback<T> itemCallback = mItemDiffCallback;
+        final int generation = ++mMaxScheduledGeneration;
+        mPendingData = newData;
+        mDiffExecutor.execute(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mMaxScheduledGeneration) {
+                            // Superseded by a newer call to setData before we got to it.
+                            return;
+                        }
+                        final DiffUtil.DiffResult result =
+                                DiffUtil.calculateDiff(
+                                        new ListDiffCallback<>(oldData, newData, itemCallback));
+                        mMainThreadExecutor.execute(
+                                new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        if (generation == mMaxScheduledGeneration) {
+                                            applyDiffResult(oldData.size(), newData, result);
+                                        }
+                                    }
+                                });
+                    }
+                });
+    }
+
+    /**
+     * Makes {@link #setData(List)} compute the difference between the old and the new data on a
+     * background thread, and then notify only the items that changed on the main thread instead of
+     * rebinding the whole list. If setData is called again before a diff completes, the older diff
+     * is dropped. Other changes to the data apply any pending data first.
+     *
+     * <p>The diffs of all list components share a small pool of background threads, so the diffs
+     * of different lists can run at the same time. Use {@link #setItemDiffCallback(ItemCallback,
+     * Executor)} to diff on an executor of the app instead.
+     *
+     * @param itemCallback The callback used to compare data items, or null to update the data
+     *     synchronously.
+     */
+    public void setItemDiffCallback(@Nullable ItemCallback<T> itemCallback) {
+        setItemDiffCallback(itemCallback, DiffExecutors.BACKGROUND);
+    }
+
+    /**
+     * @param itemCallback The callback used to compare data items, or null to update the data
+     *     synchronously.
+     * @param diffExecutor The executor on which the data is diffed.
+     * @see #setItemDiffCallback(ItemCallback)
+     */
+    public void setItemDiffCallback(
+            @Nullable ItemCallback<T> itemCallback, @NonNull Executor diffExecutor) {
+        flushPendingData();
+        mItemDiffCallback = itemCallback;
+        mDiffExecutor = diffExecutor;
+        if (mMainThreadExecutor == null) {
+            mMainThreadExecutor = DiffExecutors.MAIN_THREAD;
+        }
+    }
+
+    @VisibleForTesting
+    void setMainThreadExecutor(@NonNull Executor mainThreadExecutor) {
+        mMainThreadExecutor = mainThreadExecutor;
     }
 
     /**
@@ -79,6 +182,7 @@ public class ListComponent<P, T> extends Component {
      * @param data The new data list items to add.
      */
     public void appendData(@NonNull List<T> data) {
+        flushPendingData();
         int oldSize = mShouldShowDivider ? getTotalSizeWithSeparators(mData.size()) : mData.size();
         int sizeChange = mShouldShowDivider ? data.size() * 2 : data.size();
         mData.addAll(data);
@@ -91,6 +195,7 @@ public class ListComponent<P, T> extends Component {
      * @param data The data item to remove from the list.
      */
     public void removeData(@NonNull T data) {
+        flushPendingData();
         int index = mData.indexOf(data);
         // Check if the object indeed is in the list.
         if (index != -1) {
@@ -255,6 +360,7 @@ public class ListComponent<P, T> extends Component {
     public final void onItemsMoved(int fromIndex, int toIndex) {
         super.onItemsMoved(fromIndex, toIndex);
 
+        flushPendingData();
         mData.add(toIndex, mData.remove(fromIndex));
 
         if (mOnItemMovedCallback != null) {
@@ -281,6 +387,43 @@ public class ListComponent<P, T> extends Component {
         this.isReorderable = isReorderable;
     }
 
+    /**
+     * Applies the data of a pending diff right away, without waiting for the diff to complete.
+     * Called before any other change to the data so that it applies on top of the latest data.
+     */
+    private void flushPendingData() {
+        if (mPendingData != null) {
+            List<T> pendingData = mPendingData;
+            cancelPendingData();
+            mData.clear();
+            mData.addAll(pendingData);
+            notifyDataChanged();
+        }
+    }
+
+    /** Drops the pending diff, if any, so that its result is never applied. */
+    private void cancelPendingData() {
+        if (mPendingData != null) {
+            mPendingData = null;
+            mMaxScheduledGeneration++;
+        }
+    }
+
+    private void applyDiffResult(
+            int oldSize, @NonNull List<T> newData, @NonNull DiffUtil.DiffResult result) {
+        mPendingData = null;
+        mData.clear();
+        mData.addAll(newData);
+        boolean traced = BentoTrace.beginSection(Section.APPLY_DIFF, getClass());
+        try {
+            result.dispatchUpdatesTo(new DividerUpdateCallback(oldSize));
+        } finally {
+            if (traced) {
+                BentoTrace.endSection();
+            }
+        }
+    }
+
     @NonNull
     private T getListItem(int position) {
         onGetListItem(position);
@@ -303,6 +446,162 @@ public class ListComponent<P, T> extends Component {
         return size == 0 ? 0 : size * 2 - 1;
     }
 
+    /**
+     * Translates the updates of a diff, which are expressed in data positions, to the positions of
+     * the items in the list, inserting and removing the dividers along with the data items.
+     */
+    private class DividerUpdateCallback implements ListUpdateCallback {
+
+        /** The number of data items at the current step of the updates. */
+        private int mSize;
+
+        private DividerUpdateCallback(int oldSize) {
+            mSize = oldSize;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            if (!mShouldShowDivider) {
+                notifyItemRangeInserted(position, count);
+            } else if (mSize == 0) {
+                notifyItemRangeInserted(0, getTotalSizeWithSeparators(count));
+            } else {
+                // Each item comes with a divider: after it at the start, otherwise before it.
+                notifyItemRangeInserted(position == 0 ? 0 : position * 2 - 1, count * 2);
+            }
+            mSize += count;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            if (!mShouldShowDivider) {
+                notifyItemRangeRemoved(position, count);
+            } else if (count == mSize) {
+                notifyItemRangeRemoved(0, getTotalSizeWithSeparators(count));
+            } else {
+                // Same as getRemoveIndexStart() for a range of items.
+                notifyItemRangeRemoved(position == 0 ? 0 : position * 2 - 1, count * 2);
+            }
+            mSize -= count;
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            if (!mShouldShowDivider) {
+                notifyItemMoved(fromPosition, toPosition);
+            } else {
+                // Moving a single list item would leave its divider behind.
+                onRemoved(fromPosition, 1);
+                onInserted(toPosition, 1);
+            }
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            if (!mShouldShowDivider) {
+                notifyItemRangeChanged(position, count, payload);
+            } else {
+                notifyItemRangeChanged(position * 2, getTotalSizeWithSeparators(count), payload);
+            }
+        }
+    }
+
+    /** Compares two snapshots of the list data using an {@link ItemCallback}. */
+    private static class ListDiffCallback<T> extends DiffUtil.Callback {
+
+        private final List<T> mOldData;
+        private final List<T> mNewData;
+        private final ItemCallback<T> mItemCallback;
+
+        private ListDiffCallback(
+                @NonNull List<T> oldData,
+                @NonNull List<T> newData,
+                @NonNull ItemCallback<T> itemCallback) {
+            mOldData = oldData;
+            mNewData = newData;
+            mItemCallback = itemCallback;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldData.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewData.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mItemCallback.areItemsTheSame(
+                    mOldData.get(oldItemPosition), mNewData.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return mItemCallback.areContentsTheSame(
+                    mOldData.get(oldItemPosition), mNewData.get(newItemPosition));
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return mItemCallback.getChangePayload(
+                    mOldData.get(oldItemPosition), mNewData.get(newItemPosition));
+        }
+    }
+
+    /** Executors shared by all list components, created the first time a list needs them. */
+    private static class DiffExecutors {
+
+        /** The most diffs that run at the same time, whatever the number of lists. */
+        private static final int BACKGROUND_THREADS =
+                Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+        /** How long an idle diff thread is kept before it is stopped. */
+        private static final long KEEP_ALIVE_SECONDS = 30;
+
+        static final Executor BACKGROUND = newBackgroundExecutor();
+
+        static final Executor MAIN_THREAD =
+                new Executor() {
+                    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+                    @Override
+                    public void execute(@NonNull Runnable command) {
+                        mHandler.post(command);
+                    }
+                };
+
+        @NonNull
+        private static Executor newBackgroundExecutor() {
+            final AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor executor =
+                    new ThreadPoolExecutor(
+                            BACKGROUND_THREADS,
+                            BACKGROUND_THREADS,
+                            KEEP_ALIVE_SECONDS,
+                            TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<Runnable>(),
+                            new ThreadFactory() {
+                                @Override
+                                public Thread newThread(@NonNull Runnable runnable) {
+                                    Thread thread =
+                                            new Thread(
+                                                    runnable,
+                                                    "bento-diff-" + threadCount.incrementAndGet());
+                                    // Diffs must never keep the process alive.
+                                    thread.setDaemon(true);
+                                    return thread;
+                                }
+                            });
+            // Stops the threads while no list is diffed.
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
     @SuppressWarnings("WeakerAccess") // Required to be public for instantiation by reflection
     public abstract static class DividerViewHolder extends ComponentViewHolder {
 
@@ -14,6 +14,7 @@ import com.yelp.android.bento.core.ComponentGroup;
 import com.yelp.android.bento.core.ComponentViewHolder;
 import com.yelp.android.bento.utils.AccordionList.Range;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * A component to easily add other components to a view pager. A lot of the functionality is
@@ -105,11 +106,26 @@ public class ViewPagerComponent extends Component implements ComponentController
         return mComponentController.remove(component);
     }
 
+    @Override
+    public ComponentController setComponents(@NonNull List<? extends Component> components) {
+        return mComponentController.setComponents(components);
+    }
+
     @Override
     public void clear() {
         mComponentController.clear();
     }
 
+    @Override
+    public void beginBatch() {
+        mComponentController.beginBatch();
+    }
+
+    @Override
+    public void commitBatch() {
+        mComponentController.commitBatch();
+    }
+
     @Override
     public void scrollToComponent(@NonNull Component component, boolean smoothScroll) {
         mComponentController.scrollToComponent(component, smoothScroll);
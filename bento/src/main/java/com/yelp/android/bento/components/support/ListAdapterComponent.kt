@@ -34,6 +34,10 @@ class ListAdapterComponent(private val listAdapter: ListAdapter) : Component() {
 
     override fun getCount(): Int = listAdapter.count
 
+    override fun getItemId(position: Int): Long =
+            if (listAdapter.hasStableIds()) listAdapter.getItemId(position)
+            else super.getItemId(position)
+
     override fun getHolderType(position: Int) = ListAdapterHolderType::class.java
 
     /**
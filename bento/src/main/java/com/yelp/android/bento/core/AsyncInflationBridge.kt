@@ -9,14 +9,16 @@ import androidx.lifecycle.OnLifecycleEvent
 import androidx.lifecycle.findViewTreeLifecycleOwner
 import androidx.lifecycle.lifecycleScope
 import androidx.recyclerview.widget.RecyclerView
-import com.yelp.android.bento.componentcontrollers.RecyclerViewComponentController.constructViewHolder
 import com.yelp.android.bento.core.AsyncInflationStrategy.BEST_GUESS
 import com.yelp.android.bento.core.AsyncInflationStrategy.DEFAULT
 import com.yelp.android.bento.core.AsyncInflationStrategy.SMART
 import com.yelp.android.bento.utils.BentoSettings
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ConcurrentLinkedDeque
-import java.util.concurrent.Executors
+import java.util.concurrent.Executor
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicInteger
 import kotlin.coroutines.CoroutineContext
 import kotlinx.coroutines.CoroutineDispatcher
@@ -37,6 +39,8 @@ import kotlinx.coroutines.withContext
 private const val DEFAULT_NUM_ABOVE_FOLD_VIEW_HOLDERS = 5
 private const val MAX_VIEWS = 40
 private const val VIEWS_PER_COMPONENT_THRESHOLD = 10
+private const val BRIDGE_THREADS = 2
+private const val BRIDGE_KEEP_ALIVE_SECONDS = 30L
 
 /**
  * This acts as a bridge between RecyclerViewComponentController and the underlying
@@ -47,15 +51,38 @@ private const val VIEWS_PER_COMPONENT_THRESHOLD = 10
 internal class AsyncInflationBridge @JvmOverloads constructor(
     val recyclerView: RecyclerView,
     private val asyncInflaterDispatcher: CoroutineDispatcher = BentoAsyncLayoutInflater.dispatcher,
-    private val defaultBridgeDispatcher: CoroutineDispatcher = dispatcher
+    private val defaultBridgeDispatcher: CoroutineDispatcher =
+            lanes.newLane().asCoroutineDispatcher()
 ) : CoroutineScope {
 
     internal companion object {
-        private val lock = Mutex()
-
-        private val dispatcher = Executors.newSingleThreadExecutor().asCoroutineDispatcher()
+        // Every bridge gets its own lane, so the work of one list never waits behind another's.
+        private val lanes = FairLaneExecutor(newBridgeExecutor())
+
+        private fun newBridgeExecutor(): Executor {
+            val threadCount = AtomicInteger()
+            return ThreadPoolExecutor(
+                    BRIDGE_THREADS,
+                    BRIDGE_THREADS,
+                    BRIDGE_KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    LinkedBlockingQueue()
+            ) { runnable ->
+                Thread(runnable, "bento-inflate-${threadCount.incrementAndGet()}").apply {
+                    // Inflations must never keep the process alive.
+                    isDaemon = true
+                }
+            }.apply {
+                // Stops the threads while no list is inflating.
+                allowCoreThreadTimeOut(true)
+            }
+        }
     }
 
+    // Keeps the components of this bridge's controller in order. Not shared with other bridges,
+    // so that a screen inflating its views does not hold up the lists of another.
+    private val lock = Mutex()
+
     private val job = SupervisorJob()
     override val coroutineContext: CoroutineContext = job
 
@@ -209,7 +236,7 @@ internal class AsyncInflationBridge @JvmOverloads constructor(
         coroutineScope {
             val inflations = viewHoldersToInflate.map { viewHolderType ->
                 async {
-                    val viewHolder = constructViewHolder(viewHolderType as Class<out ComponentViewHolder<Any?, Any?>>?)
+                    val viewHolder = ViewHolderFactories.create(viewHolderType as Class<out ComponentViewHolder<Any?, Any?>>)
                     addViewHolder(viewHolder, viewHolderType as Class<out ComponentViewHolder<*, *>>)
                     val (_, view) = BentoAsyncLayoutInflater.inflate(viewHolder, recyclerView, asyncInflaterDispatcher)
                     viewMap[viewHolder] = view
@@ -250,7 +277,7 @@ internal class AsyncInflationBridge @JvmOverloads constructor(
                 val inflations = (0 until numberOfViewsToInflate).map { i ->
                     async {
                         val viewHolderType = component.getHolderType(i)
-                        val viewHolder: ComponentViewHolder<*, *> = constructViewHolder(viewHolderType)
+                        val viewHolder: ComponentViewHolder<*, *> = ViewHolderFactories.create(viewHolderType)
                         addViewHolder(viewHolder, viewHolderType)
                         val (_, view) = BentoAsyncLayoutInflater.inflate(viewHolder, recyclerView, asyncInflaterDispatcher)
                         viewMap[viewHolder] = view
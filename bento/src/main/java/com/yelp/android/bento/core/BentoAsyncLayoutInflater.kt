@@ -4,6 +4,8 @@ import android.util.Log
 import android.view.View
 import android.view.ViewGroup
 import com.yelp.android.bento.utils.BentoSettings
+import com.yelp.android.bento.utils.BentoTrace
+import com.yelp.android.bento.utils.BentoTrace.Section
 import java.util.concurrent.Executors
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.Dispatchers
@@ -26,7 +28,13 @@ internal object BentoAsyncLayoutInflater {
     ): Pair<ComponentViewHolder<*, *>, View> =
             withContext(inflaterDispatcher) {
                 val view = try {
-                    viewHolder.inflate(parent)
+                    val traced =
+                            BentoTrace.beginSection(Section.ASYNC_INFLATE, viewHolder.javaClass)
+                    try {
+                        viewHolder.inflate(parent)
+                    } finally {
+                        if (traced) BentoTrace.endSection()
+                    }
                 } catch (exception: RuntimeException) {
                     // Probably a Looper failure, retry on the UI thread
                     if (BentoSettings.loggingEnabled) {
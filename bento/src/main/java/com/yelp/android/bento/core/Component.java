@@ -7,6 +7,7 @@ import androidx.annotation.Px;
 import androidx.recyclerview.widget.GridLayoutManager.SpanSizeLookup;
 import com.yelp.android.bento.utils.Observable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -29,6 +30,13 @@ public abstract class Component {
     @Px private int mEndGapSize = 0;
     @NonNull private List<ItemVisibilityListener> mItemVisibilityListeners = new ArrayList<>();
 
+    /**
+     * The groups this component has been added to, or null if none. Usually there is at most one,
+     * but a component may be shared, e.g. by a pager and its page. Maintained by {@link
+     * ComponentGroup}.
+     */
+    @Nullable /* package */ List<ComponentGroup> mParentGroups;
+
     /**
      * Gets the object that is the brains of the internal item at the specified position. The
      * presenter will be passed in to the bind method in the {@link ComponentViewHolder#bind(Object,
@@ -101,6 +109,19 @@ public abstract class Component {
         mObservable.notifyItemRangeChanged(positionStart, itemCount);
     }
 
+    /**
+     * Notify observers that a number of internal items in the {@link Component} data has changed,
+     * with a payload describing the change. The payload reaches {@link
+     * ComponentViewHolder#bind(Object, Object, List)}, so that the view holder can update only the
+     * part of the view that changed instead of rebinding it entirely.
+     *
+     * @param payload Optional object describing the change, or null for a full rebind.
+     */
+    public final void notifyItemRangeChanged(
+            int positionStart, int itemCount, @Nullable Object payload) {
+        mObservable.notifyItemRangeChanged(positionStart, itemCount, payload);
+    }
+
     /** Notify observers that an internal item in the {@link Component} data has been inserted. */
     public final void notifyItemRangeInserted(int positionStart, int itemCount) {
         mObservable.notifyItemRangeInserted(positionStart, itemCount);
@@ -162,6 +183,101 @@ public abstract class Component {
         mObservable.unregisterObserver(observer);
     }
 
+    /** @return The {@link ComponentGroup}s this component has been added to. */
+    @NonNull
+    public List<ComponentGroup> getParentGroups() {
+        return mParentGroups == null
+                ? Collections.<ComponentGroup>emptyList()
+                : Collections.unmodifiableList(mParentGroups);
+    }
+
+    /**
+     * Override to identify this component across rebuilds of a screen. {@link
+     * ComponentGroup#setComponents(List)} treats a new component with the same key as an existing
+     * one as an update of that component and rebinds its views in place rather than removing and
+     * re-adding them. Keys must be unique among the components of a group and must not change
+     * while the component is in a group.
+     *
+     * @return The key of this component, or null to match this component by identity only.
+     */
+    @Nullable
+    public Object getComponentKey() {
+        return null;
+    }
+
+    /**
+     * Override, together with {@link #areItemContentsTheSame(Object, Object)} if needed, to let
+     * groups diff the items of this component. When a component whose items all have a key calls
+     * {@link #notifyDataChanged()}, the group compares the items before and after the change and
+     * only notifies the items that were inserted, removed, moved or changed. This keeps the views
+     * and animations of the other items instead of rebinding the whole component.
+     *
+     * @param position The position of the internal item in the component.
+     * @return A key that identifies the item at the specified position, e.g. the id of the data
+     *     item, or null if this component does not support item diffing.
+     */
+    @Nullable
+    public Object getItemKey(int position) {
+        return null;
+    }
+
+    /**
+     * Called when diffing the items of this component, for two items with the same {@link
+     * #getItemKey(int)}, to find out if the item has to be rebound. Compares the data items with
+     * {@link Object#equals(Object)} by default.
+     *
+     * @param oldItem The data item, as returned by {@link #getItem(int)}, before the change.
+     * @param newItem The data item after the change.
+     * @return True if the view of the item does not have to be rebound.
+     */
+    public boolean areItemContentsTheSame(@Nullable Object oldItem, @Nullable Object newItem) {
+        return oldItem == null ? newItem == null : oldItem.equals(newItem);
+    }
+
+    /**
+     * Called when diffing the items of this component, for two items with the same {@link
+     * #getItemKey(int)} whose contents are not the same, to describe the change to the view holder.
+     *
+     * @param oldItem The data item before the change.
+     * @param newItem The data item after the change.
+     * @return The payload passed to {@link ComponentViewHolder#bind(Object, Object, List)}, or null
+     *     to rebind the item entirely.
+     */
+    @Nullable
+    public Object getItemChangePayload(@Nullable Object oldItem, @Nullable Object newItem) {
+        return null;
+    }
+
+    /**
+     * Override to give the items of this component that have no {@link #getItemKey(int)} ids that
+     * survive changes to the data, so that controllers with stable ids (see {@link
+     * com.yelp.android.bento.utils.BentoSettings#getStableIdsEnabled()}) rebind their views instead
+     * of rebuilding them when the whole list is refreshed. Ids only have to be unique within this
+     * component; groups turn them into ids that are unique among all their items. Items with a key
+     * are identified by their key instead. By default, the id is the position of the item.
+     *
+     * @param position The position of the internal item in the component.
+     * @return An id that identifies the item at the specified position.
+     */
+    public long getItemId(int position) {
+        return position;
+    }
+
+    /**
+     * Override to have the recycled view pool keep more views of one of this component's view
+     * holder types than the controller would on its own. The controller sizes the pool after the
+     * number of views of each type it has seen on screen at once, which takes a while to learn for
+     * components that show many items at a time, like grids.
+     *
+     * @param holderType One of the view holder types returned by {@link #getHolderType(int)}.
+     * @return The number of views of that type to keep for reuse, or 0 to leave it to the
+     *     controller.
+     */
+    public int getRecycledViewCapacityHint(
+            @NonNull Class<? extends ComponentViewHolder> holderType) {
+        return 0;
+    }
+
     public void registerItemVisibilityListener(@NonNull ItemVisibilityListener listener) {
         mItemVisibilityListeners.add(listener);
     }
@@ -176,7 +292,9 @@ public abstract class Component {
      * multiple lanes can display each of its internal items as a view that is a fraction of the
      * width/height of the screen. Useful for creating grid-like components.
      *
-     * <p>Override this method to increase the number of lanes in the component.
+     * <p>Override this method to increase the number of lanes in the component. Groups cache the
+     * number of lanes of their children, so if it changes after the component was added, notify
+     * observers of a data change (e.g. {@link #notifyDataChanged()}) for the change to be seen.
      *
      * @return The number of lanes the component is divided into.
      */
@@ -284,6 +402,17 @@ public abstract class Component {
         return getItem(position - getPositionOffset());
     }
 
+    /**
+     * @return What keeps the item ids of this component apart from the item ids of the other
+     *     components: the {@link #getComponentKey()} if there is one, so that a component replacing
+     *     another one with the same key keeps its item ids, and the component itself otherwise.
+     */
+    @NonNull
+    final Object getItemIdNamespace() {
+        Object key = getComponentKey();
+        return key != null ? key : this;
+    }
+
     /** @return The span size lookup that manages components with multiple lanes. */
     @NonNull
     public SpanSizeLookup getSpanSizeLookup() {
@@ -355,6 +484,17 @@ public abstract class Component {
             }
         }
 
+        public void notifyItemRangeChanged(
+                int positionStart, int itemCount, @Nullable Object payload) {
+            if (payload == null) {
+                notifyItemRangeChanged(positionStart, itemCount);
+                return;
+            }
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeChanged(positionStart, itemCount, payload);
+            }
+        }
+
         public void notifyItemRangeInserted(int positionStart, int itemCount) {
             for (int i = mObservers.size() - 1; i >= 0; i--) {
                 mObservers.get(i).onItemRangeInserted(positionStart, itemCount);
@@ -385,6 +525,15 @@ public abstract class Component {
 
         void onItemRangeChanged(int positionStart, int itemCount);
 
+        /**
+         * Called instead of {@link #onItemRangeChanged(int, int)} when the change comes with a
+         * payload. Observers that don't pass payloads along can leave this as is.
+         */
+        default void onItemRangeChanged(
+                int positionStart, int itemCount, @Nullable Object payload) {
+            onItemRangeChanged(positionStart, itemCount);
+        }
+
         void onItemRangeInserted(int positionStart, int itemCount);
 
         void onItemRangeRemoved(int positionStart, int itemCount);
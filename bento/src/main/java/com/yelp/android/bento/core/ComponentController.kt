@@ -123,11 +123,70 @@ interface ComponentController {
      */
     fun remove(component: Component): Boolean
 
+    /**
+     * Replaces the [Component]s of this controller with the specified ones using as few changes as
+     * possible, so that the views of unchanged components are kept. Components are matched by
+     * [Component.getComponentKey] or identity. See [ComponentGroup.setComponents].
+     *
+     * The default implementation only uses the other methods of this interface: it removes the
+     * components that are not matched, then walks the new list, replacing matched components that
+     * are a different instance and moving or adding the others. It takes quadratic time, so
+     * controllers backed by a [ComponentGroup] should delegate to [ComponentGroup.setComponents].
+     *
+     * @param components The new [Component]s, in order
+     * @return Reference to this controller
+     */
+    fun setComponents(components: List<Component>): ComponentController {
+        val keys = components.map(::matchKeyOf)
+        batch {
+            for (index in size - 1 downTo 0) {
+                if (matchKeyOf(get(index)) !in keys) {
+                    remove(index)
+                }
+            }
+            components.forEachIndexed { index, component ->
+                val current = if (index < size) get(index) else null
+                when {
+                    current === component -> Unit
+                    current != null && matchKeyOf(current) == keys[index] ->
+                        replaceComponent(index, component)
+                    else -> {
+                        for (from in index + 1 until size) {
+                            if (matchKeyOf(get(from)) == keys[index]) {
+                                remove(from)
+                                break
+                            }
+                        }
+                        addComponent(index, component)
+                    }
+                }
+            }
+        }
+        return this
+    }
+
     /**
      * Removes all [Component]s from this controller.
      */
     fun clear()
 
+    /**
+     * Starts a batch of changes. The view is not updated until the matching [commitBatch], which
+     * sends all the changes made in between as a minimal set of notifications and lays out the
+     * lanes once. Batches can be nested. See also [batch].
+     *
+     * The default implementation does nothing, so every change updates the view right away.
+     */
+    fun beginBatch() = Unit
+
+    /**
+     * Ends the batch started by the matching [beginBatch] and, for the outermost batch, updates
+     * the view with all the changes made during the batch.
+     *
+     * The default implementation does nothing, see [beginBatch].
+     */
+    fun commitBatch() = Unit
+
     /**
      * Scroll the controller until the specified component is at the top of the screen (or as close
      * as possible if the view cannot scroll enough). If the component cannot be found in the
@@ -149,3 +208,6 @@ interface ComponentController {
      */
     fun scrollToComponentWithOffset(component: Component, offset: Int = 0)
 }
+
+/** @return What [ComponentController.setComponents] matches the [component] by. */
+private fun matchKeyOf(component: Component): Any = component.componentKey ?: component
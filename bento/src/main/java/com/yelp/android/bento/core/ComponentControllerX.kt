@@ -9,3 +9,16 @@ fun ComponentController.asItemSequence(): Sequence<Any?> {
         get(index).asItemSequence()
     }).flatten()
 }
+
+/**
+ * Applies the changes made in [block] to the view at once. See [ComponentController.beginBatch].
+ */
+inline fun <T : ComponentController> T.batch(block: T.() -> Unit): T {
+    beginBatch()
+    try {
+        block()
+    } finally {
+        commitBatch()
+    }
+    return this
+}
@@ -3,17 +3,27 @@ package com.yelp.android.bento.core;
 import androidx.annotation.CallSuper;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.GridLayoutManager.SpanSizeLookup;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import com.yelp.android.bento.utils.AccordionList;
+import com.yelp.android.bento.utils.AccordionList.Cursor;
 import com.yelp.android.bento.utils.AccordionList.Range;
 import com.yelp.android.bento.utils.AccordionList.RangedValue;
+import com.yelp.android.bento.utils.BentoTrace;
+import com.yelp.android.bento.utils.BentoTrace.Section;
+import com.yelp.android.bento.utils.ComponentUpdateCallback;
 import com.yelp.android.bento.utils.MathUtils;
 import com.yelp.android.bento.utils.Observable;
+import com.yelp.android.bento.utils.PendingUpdates;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 /**
  * A {@link Component} comprising of zero or more ordered child {@link Component}s. Useful for
@@ -22,20 +32,57 @@ import java.util.Map.Entry;
  */
 public class ComponentGroup extends Component {
 
+    /** The item keys of the gaps of a component, see {@link Component#getItemKey(int)}. */
+    private static final Object START_GAP_KEY = new Object();
+
+    private static final Object END_GAP_KEY = new Object();
+
     /**
      * The list that specifies the ranges that each component in the group occupies in the
      * underlying total order of internal component items.
      */
     private final AccordionList<Component> mComponentAccordionList = new AccordionList<>();
 
-    /** A map from a Component to its Index in the order of the ComponentGroup. */
-    private final Map<Component, Integer> mComponentIndexMap = new HashMap<>();
+    /**
+     * A map from a Component to the handle of its entry in {@link #mComponentAccordionList}. The
+     * index of a component is derived from its handle, so adding or removing a component does not
+     * require renumbering its siblings.
+     */
+    private final Map<Component, Integer> mComponentHandleMap = new HashMap<>();
 
     /** A map from a Component to its corresponding {@link ComponentDataObserver}. */
     private final Map<Component, ComponentDataObserver> mComponentDataObserverMap = new HashMap<>();
 
     private final ComponentGroupObservable mObservable = new ComponentGroupObservable();
 
+    /**
+     * Reused for every position lookup made by this group so that resolving positions during
+     * binding and layout does not allocate. Cleared after every lookup, so that it never keeps a
+     * removed component alive. Only ever used on the main thread.
+     */
+    private final Cursor<Component> mLookupCursor = new Cursor<>();
+
+    /**
+     * The cached result of {@link #getNumberLanes()}, or 0 when it has to be recomputed because a
+     * child was added, removed or notified a change.
+     */
+    private int mNumberLanes;
+
+    /** The last snapshot handed out by {@link #snapshot()}, reused while it is still current. */
+    @Nullable private Snapshot mSnapshot;
+
+    /** The changes made since {@link #beginBatch()}, or null if no batch is open. */
+    @Nullable private PendingUpdates mPendingUpdates;
+
+    /** Whether the {@link ComponentGroupDataObserver}s have to be notified on commit. */
+    private boolean mGroupChangedInBatch;
+
+    /** The number of calls to {@link #beginBatch()} that have not been committed yet. */
+    private int mBatchDepth;
+
+    /** Hands out the ids of the items of this group, see {@link #getItemId(int)}. */
+    private final ItemIdRegistry mItemIds = new ItemIdRegistry();
+
     public ComponentGroup() {
         mSpanSizeLookup =
                 new SpanSizeLookup() {
@@ -44,12 +91,13 @@ public class ComponentGroup extends Component {
                         if (hasGap(position)) {
                             return getNumberLanes();
                         }
-                        RangedValue<Component> rangedValue =
-                                mComponentAccordionList.rangedValueAt(position);
-                        return rangedValue
-                                .mValue
-                                .getSpanSizeLookup()
-                                .getSpanSize(position - rangedValue.mRange.mLower);
+                        Cursor<Component> cursor =
+                                mComponentAccordionList.find(position, mLookupCursor);
+                        try {
+                            return cursor.mValue.getSpanSizeLookup().getSpanSize(cursor.mOffset);
+                        } finally {
+                            cursor.clear();
+                        }
                     }
                 };
     }
@@ -91,7 +139,7 @@ public class ComponentGroup extends Component {
      * @return True if the {@link ComponentGroup} contains the provided {@link Component}.
      */
     public boolean contains(@NonNull Component component) {
-        return mComponentIndexMap.containsKey(component);
+        return mComponentHandleMap.containsKey(component);
     }
 
     /**
@@ -100,8 +148,8 @@ public class ComponentGroup extends Component {
      *     or -1 otherwise.
      */
     public int indexOf(@NonNull Component component) {
-        Integer index = mComponentIndexMap.get(component);
-        return index == null ? -1 : index;
+        Integer handle = mComponentHandleMap.get(component);
+        return handle == null ? -1 : mComponentAccordionList.indexOfHandle(handle);
     }
 
     /**
@@ -111,8 +159,8 @@ public class ComponentGroup extends Component {
      */
     @Nullable
     public Range rangeOf(@NonNull Component component) {
-        Integer index = mComponentIndexMap.get(component);
-        return index == null ? null : mComponentAccordionList.get(index).mRange;
+        int index = indexOf(component);
+        return index == -1 ? null : mComponentAccordionList.get(index).mRange;
     }
 
     /**
@@ -150,7 +198,7 @@ public class ComponentGroup extends Component {
      */
     @NonNull
     public ComponentGroup addComponent(int index, @NonNull final Component component) {
-        if (mComponentIndexMap.containsKey(component)) {
+        if (mComponentHandleMap.containsKey(component)) {
             throw new IllegalArgumentException("Component " + component + " already added.");
         }
 
@@ -162,13 +210,10 @@ public class ComponentGroup extends Component {
             insertionStartIndex = getCountInternal();
         }
         addComponentAndUpdateIndices(index, component);
+        attachComponent(component);
 
-        ComponentDataObserver componentDataObserver = new ChildComponentDataObserver(component);
-        component.registerComponentDataObserver(componentDataObserver);
-        mComponentDataObserverMap.put(component, componentDataObserver);
-
-        notifyItemRangeInserted(insertionStartIndex, component.getCountInternal());
-        mObservable.notifyOnChanged();
+        dispatchItemRangeInserted(insertionStartIndex, component.getCountInternal());
+        dispatchGroupChanged();
         return this;
     }
 
@@ -193,10 +238,59 @@ public class ComponentGroup extends Component {
      */
     @NonNull
     public ComponentGroup addAll(@NonNull Collection<? extends Component> components) {
-        for (Component comp : components) {
-            addComponent(comp);
+        return addAll(getSize(), components);
+    }
+
+    /**
+     * Adds all {@link Component}s at the specified index to the {@link ComponentGroup}. The
+     * components are inserted in one pass and reported as a single inserted range, which makes
+     * adding many components at once linear rather than quadratic. Will throw an exception if the
+     * {@link ComponentGroup} already contains one of the provided {@link Component}s.
+     *
+     * @param index The index at which the first {@link Component} should be added to the {@link
+     *     ComponentGroup}.
+     * @param components The {@link Component}s to add to the {@link ComponentGroup}.
+     * @return The {@link ComponentGroup} that the {@link Component}s were added to.
+     */
+    @NonNull
+    public ComponentGroup addAll(int index, @NonNull Collection<? extends Component> components) {
+        if (components.isEmpty()) {
+            return this;
+        }
+
+        List<Component> added = new ArrayList<>(components);
+        Set<Component> seen = new HashSet<>();
+        int[] sizes = new int[added.size()];
+        int insertedCount = 0;
+        for (int i = 0; i < added.size(); i++) {
+            Component component = added.get(i);
+            if (mComponentHandleMap.containsKey(component) || !seen.add(component)) {
+                throw new IllegalArgumentException("Component " + component + " already added.");
+            }
+            sizes[i] = component.getCountInternal();
+            insertedCount += sizes[i];
         }
 
+        final int insertionStartIndex;
+        if (mComponentAccordionList.size() > index) {
+            RangedValue<Component> rangedValue = mComponentAccordionList.get(index);
+            insertionStartIndex = rangedValue.mRange.mLower;
+        } else {
+            insertionStartIndex = getCountInternal();
+        }
+        mComponentAccordionList.addAll(index, added, sizes);
+        mNumberLanes = 0;
+        for (int i = 0; i < added.size(); i++) {
+            mComponentHandleMap.put(added.get(i), mComponentAccordionList.handleAt(index + i));
+            addParentGroup(added.get(i), this);
+        }
+
+        for (Component component : added) {
+            attachComponent(component);
+        }
+
+        dispatchItemRangeInserted(insertionStartIndex, insertedCount);
+        dispatchGroupChanged();
         return this;
     }
 
@@ -211,7 +305,7 @@ public class ComponentGroup extends Component {
      */
     @NonNull
     public ComponentGroup replaceComponent(int index, @NonNull Component component) {
-        if (mComponentIndexMap.containsKey(component)) {
+        if (mComponentHandleMap.containsKey(component)) {
             throw new IllegalArgumentException("Component " + component + " already added.");
         }
         addComponent(index, component);
@@ -244,7 +338,7 @@ public class ComponentGroup extends Component {
     public Component remove(int index) {
         Component component = get(index);
         remove(index, component);
-        mObservable.notifyOnChanged();
+        dispatchGroupChanged();
         return component;
     }
 
@@ -260,12 +354,99 @@ public class ComponentGroup extends Component {
 
     /** Removes all {@link Component}s from the {@link ComponentGroup}. */
     public void clear() {
+        List<Component> removed = new ArrayList<>(mComponentAccordionList.size());
+        for (RangedValue<Component> rangedValue : mComponentAccordionList) {
+            removed.add(rangedValue.mValue);
+        }
         mComponentAccordionList.clear();
-        for (Component component : new ArrayList<>(mComponentIndexMap.keySet())) {
-            cleanupComponent(component);
+        mComponentHandleMap.clear();
+        mNumberLanes = 0;
+        for (Component component : removed) {
+            detachComponent(component);
         }
-        notifyDataChanged();
-        mObservable.notifyOnChanged();
+        dispatchDataChanged();
+        dispatchGroupChanged();
+    }
+
+    /**
+     * Makes the provided {@link Component}s the content of the {@link ComponentGroup} with as few
+     * changes as possible. Components are matched with the current ones by {@link
+     * Component#getComponentKey()}, or by identity if they have no key:
+     *
+     * <ul>
+     *   <li>current components without a match are removed,
+     *   <li>new components without a match are added,
+     *   <li>matched components keep their views. A matched component that is a different instance
+     *       replaces the current one and its items are reported as changed,
+     *   <li>matched components are moved to their new index. The components that keep their
+     *       relative order, i.e. a longest increasing subsequence of them, do not move.
+     * </ul>
+     *
+     * <p>All the changes are sent to observers as one batch, see {@link #beginBatch()}.
+     *
+     * @param components The new components of the {@link ComponentGroup}, in order.
+     * @return The {@link ComponentGroup} whose components were set.
+     */
+    @NonNull
+    public ComponentGroup setComponents(@NonNull List<? extends Component> components) {
+        Map<Object, Integer> newIndices = new HashMap<>();
+        for (int i = 0; i < components.size(); i++) {
+            Object key = keyOf(components.get(i));
+            if (newIndices.put(key, i) != null) {
+                throw new IllegalArgumentException("Component key " + key + " is not unique.");
+            }
+        }
+
+        beginBatch();
+        try {
+            // Removes the components without a match. If several current components have the same
+            // key, only the first one is kept.
+            Set<Object> matchedKeys = new HashSet<>();
+            boolean[] matched = new boolean[getSize()];
+            for (int i = 0; i < matched.length; i++) {
+                Object key = keyOf(get(i));
+                matched[i] = newIndices.containsKey(key) && matchedKeys.add(key);
+            }
+            for (int i = matched.length - 1; i >= 0; i--) {
+                if (!matched[i]) {
+                    remove(i);
+                }
+            }
+
+            // Replaces the matched components that are different instances.
+            int[] newIndicesOfMatches = new int[getSize()];
+            for (int i = 0; i < getSize(); i++) {
+                int newIndex = newIndices.get(keyOf(get(i)));
+                Component component = components.get(newIndex);
+                if (component != get(i)) {
+                    swapComponent(i, component);
+                }
+                newIndicesOfMatches[i] = newIndex;
+            }
+
+            // Moves and adds components from the end, so that the component following the one we
+            // place is always already in its final position.
+            boolean[] staysInPlace = MathUtils.longestIncreasingSubsequence(newIndicesOfMatches);
+            Set<Component> unmoved = new HashSet<>();
+            for (int i = 0; i < staysInPlace.length; i++) {
+                if (staysInPlace[i]) {
+                    unmoved.add(get(i));
+                }
+            }
+            for (int i = components.size() - 1; i >= 0; i--) {
+                Component component = components.get(i);
+                int anchor = i + 1 < components.size() ? indexOf(components.get(i + 1)) : getSize();
+                int index = indexOf(component);
+                if (index == -1) {
+                    addComponent(anchor, component);
+                } else if (!unmoved.contains(component)) {
+                    moveComponent(index, index < anchor ? anchor - 1 : anchor);
+                }
+            }
+        } finally {
+            commitBatch();
+        }
+        return this;
     }
 
     /**
@@ -276,9 +457,12 @@ public class ComponentGroup extends Component {
     @NonNull
     @SuppressWarnings("unchecked") // Unchecked Component generics.
     public Class<? extends ComponentViewHolder> getHolderType(int position) {
-        RangedValue<Component> compPair = mComponentAccordionList.rangedValueAt(position);
-        Component component = mComponentAccordionList.valueAt(position);
-        return component.getHolderTypeInternal(position - compPair.mRange.mLower);
+        Cursor<Component> cursor = mComponentAccordionList.find(position, mLookupCursor);
+        try {
+            return cursor.mValue.getHolderTypeInternal(cursor.mOffset);
+        } finally {
+            cursor.clear();
+        }
     }
 
     /**
@@ -289,9 +473,12 @@ public class ComponentGroup extends Component {
     @Nullable
     @Override
     public Object getPresenter(int position) {
-        RangedValue<Component> compPair = mComponentAccordionList.rangedValueAt(position);
-        Component component = mComponentAccordionList.valueAt(position);
-        return component.getPresenterInternal(position - compPair.mRange.mLower);
+        Cursor<Component> cursor = mComponentAccordionList.find(position, mLookupCursor);
+        try {
+            return cursor.mValue.getPresenterInternal(cursor.mOffset);
+        } finally {
+            cursor.clear();
+        }
     }
 
     /** @return The total count for each component in this component group. */
@@ -344,9 +531,48 @@ public class ComponentGroup extends Component {
      */
     @Override
     public Object getItem(int position) {
-        RangedValue<Component> compPair = mComponentAccordionList.rangedValueAt(position);
-        Component component = mComponentAccordionList.valueAt(position);
-        return component.getItemInternal(position - compPair.mRange.mLower);
+        Cursor<Component> cursor = mComponentAccordionList.find(position, mLookupCursor);
+        try {
+            return cursor.mValue.getItemInternal(cursor.mOffset);
+        } finally {
+            cursor.clear();
+        }
+    }
+
+    /**
+     * @param position The position of the internal item in the {@link Component} of the {@link
+     *     ComponentGroup}.
+     * @return The id of the internal item at the specified position, unique among all the items of
+     *     this group.
+     */
+    @Override
+    public long getItemId(int position) {
+        Cursor<Component> cursor = mComponentAccordionList.find(position, mLookupCursor);
+        try {
+            Component component = cursor.mValue;
+            Object itemKey = itemKeyAt(component, cursor.mOffset);
+            long itemId =
+                    itemKey == null
+                            ? component.getItemId(cursor.mOffset - component.getPositionOffset())
+                            : 0;
+            return mItemIds.idOf(component.getItemIdNamespace(), itemKey, itemId);
+        } finally {
+            cursor.clear();
+        }
+    }
+
+    /**
+     * @param holderType A view holder type used by one of the components of this group.
+     * @return The largest hint given by the components of this group for the view holder type.
+     */
+    @Override
+    public int getRecycledViewCapacityHint(
+            @NonNull Class<? extends ComponentViewHolder> holderType) {
+        int hint = super.getRecycledViewCapacityHint(holderType);
+        for (int i = 0; i < getSize(); i++) {
+            hint = Math.max(hint, get(i).getRecycledViewCapacityHint(holderType));
+        }
+        return hint;
     }
 
     /**
@@ -355,6 +581,13 @@ public class ComponentGroup extends Component {
      */
     @Override
     public final int getNumberLanes() {
+        if (mNumberLanes == 0) {
+            mNumberLanes = computeNumberLanes();
+        }
+        return mNumberLanes;
+    }
+
+    private int computeNumberLanes() {
         int[] childLanes = new int[mComponentAccordionList.size()];
         for (int i = 0; i < mComponentAccordionList.size(); i++) {
             childLanes[i] = mComponentAccordionList.get(i).mValue.getNumberLanes();
@@ -375,34 +608,48 @@ public class ComponentGroup extends Component {
 
     /**
      * Finds the offset of the specified component if it belongs in this ComponentGroup's hierarchy.
-     * That is, we will perform a depth-first search through all Components contained in this group
-     * and return the offset of the requested Component. Offset here refers to the number of items
-     * declared by all Components appearing before the specified Component. If this group is the
-     * root, then this value can directly be used as the index of the first view of the Component in
-     * an adapter.
+     * That is, we follow the component's parent groups up to this group, which takes O(depth * log
+     * n), and return the offset of the requested Component. Offset here refers to the number of
+     * items declared by all Components appearing before the specified Component. If this group is
+     * the root, then this value can directly be used as the index of the first view of the
+     * Component in an adapter.
      *
      * @param component the component to search for
      * @return the offset of the component, or -1 if the component does not belong in this group or
      *     any of its children.
      */
     public int findComponentOffset(@NonNull Component component) {
-        int offset = 0;
         if (component == this) {
             return 0;
         }
 
-        for (int i = 0; i < getSize(); i++) {
-            Component candidate = get(i);
-            if (candidate == component) {
-                return offset;
+        if (component.mParentGroups != null) {
+            for (ComponentGroup parent : component.mParentGroups) {
+                int parentOffset = findComponentOffset(parent);
+                if (parentOffset != -1) {
+                    return parentOffset + parent.rangeOf(component).mLower;
+                }
             }
-            if (candidate instanceof ComponentGroup) {
-                int maybeIndex = ((ComponentGroup) candidate).findComponentOffset(component);
-                if (maybeIndex != -1) {
-                    return offset + maybeIndex;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the direct child of this group that either is the specified component or contains it
+     * somewhere in its hierarchy, e.g. the page of a pager that shows the component.
+     *
+     * @param component the component to search for
+     * @return the index of the child, or -1 if the component does not belong in this group or any
+     *     of its children.
+     */
+    public int indexOfChildContaining(@NonNull Component component) {
+        if (component.mParentGroups != null) {
+            for (ComponentGroup parent : component.mParentGroups) {
+                int index = parent == this ? indexOf(component) : indexOfChildContaining(parent);
+                if (index != -1) {
+                    return index;
                 }
             }
-            offset = rangeOf(candidate).mUpper;
         }
         return -1;
     }
@@ -414,7 +661,11 @@ public class ComponentGroup extends Component {
      * @return The lowest component in the tree.
      */
     public Component findComponentWithIndex(int index) {
-        return findRangedComponentWithIndex(index).mValue;
+        try {
+            return findComponentWithIndex(index, mLookupCursor).mValue;
+        } finally {
+            mLookupCursor.clear();
+        }
     }
 
     /**
@@ -424,25 +675,105 @@ public class ComponentGroup extends Component {
      * @return Both a component and an absolute range over the entire controller.
      */
     public RangedValue<Component> findRangedComponentWithIndex(int index) {
-        if (hasGap(index)) {
-            return new RangedValue<Component>(this, new Range(0, getCount()));
+        Cursor<Component> cursor = findComponentWithIndex(index, new Cursor<Component>());
+        return new RangedValue<>(cursor.mValue, new Range(cursor.mLower, cursor.mUpper));
+    }
+
+    /**
+     * Allocation-free version of {@link #findRangedComponentWithIndex(int)}. Finds the component
+     * at the lowest level (leaf) that encompasses the index and writes it, together with its
+     * absolute range and the offset of the index inside that range, into the provided cursor.
+     *
+     * @param index The index to search for.
+     * @param cursor The caller-owned cursor to fill. {@link Cursor#mEntryIndex} is the index of
+     *     the leaf in its direct parent group, or -1 if the index points to a group's gap.
+     * @return The provided cursor, for convenience.
+     */
+    @NonNull
+    public Cursor<Component> findComponentWithIndex(int index, @NonNull Cursor<Component> cursor) {
+        ComponentGroup group = this;
+        int base = 0;
+        while (true) {
+            if (group.hasGap(index)) {
+                cursor.set(group, -1, base, base + group.getCount(), index);
+                return cursor;
+            }
+
+            group.mComponentAccordionList.find(index, cursor);
+            if (cursor.mValue instanceof ComponentGroup) {
+                base += cursor.mLower;
+                index = cursor.mOffset;
+                group = (ComponentGroup) cursor.mValue;
+            } else {
+                cursor.mLower += base;
+                cursor.mUpper += base;
+                return cursor;
+            }
+        }
+    }
+
+    /**
+     * Returns an immutable view of the layout of this group, i.e. its components, their ranges and
+     * the layout of nested groups, that can be read from background threads (e.g. for analytics,
+     * diffing or prefetch planning) while the group keeps changing on the main thread. The
+     * components themselves are not copied, so readers must not assume they are thread safe.
+     *
+     * <p>Snapshots share storage with the group; as long as nothing changed, the previous snapshot
+     * is returned. Must be called from the thread that modifies the group.
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        if (mSnapshot == null || !mSnapshot.isCurrent()) {
+            mSnapshot = new Snapshot(this);
         }
+        return mSnapshot;
+    }
 
-        RangedValue<Component> rangedValue = mComponentAccordionList.rangedValueAt(index);
+    /**
+     * Opens a batch. Until the matching {@link #commitBatch()}, observers are not notified of the
+     * changes made to this group or its children. The changes are recorded instead and sent on
+     * commit, with adjacent inserts, removes and changes merged into single ranges. For example,
+     * adding 50 components one by one results in one inserted range. Batches can be nested, in
+     * which case the outermost commit sends the changes.
+     *
+     * <p>{@link ComponentGroupDataObserver#onComponentRemoved(Component)} is still called right
+     * away, so that the resources of removed components are released in time.
+     */
+    public void beginBatch() {
+        if (mBatchDepth++ == 0) {
+            mPendingUpdates = new PendingUpdates();
+        }
+    }
 
-        if (rangedValue.mValue instanceof ComponentGroup) {
-            ComponentGroup group = (ComponentGroup) rangedValue.mValue;
-            RangedValue<Component> childRange =
-                    group.findRangedComponentWithIndex(index - rangedValue.mRange.mLower);
+    /**
+     * Closes the batch opened by the matching {@link #beginBatch()}. If it is the outermost batch,
+     * notifies observers of all the changes made during the batch.
+     */
+    public void commitBatch() {
+        if (mBatchDepth == 0) {
+            throw new IllegalStateException("commitBatch() called without beginBatch().");
+        }
+        if (--mBatchDepth > 0) {
+            return;
+        }
 
-            return new RangedValue<>(
-                    childRange.mValue,
-                    new Range(
-                            rangedValue.mRange.mLower + childRange.mRange.mLower,
-                            rangedValue.mRange.mLower + childRange.mRange.mUpper));
+        PendingUpdates pendingUpdates = mPendingUpdates;
+        boolean groupChanged = mGroupChangedInBatch;
+        mPendingUpdates = null;
+        mGroupChangedInBatch = false;
+        if (pendingUpdates.isDataChanged()) {
+            notifyDataChanged();
         } else {
-            return rangedValue;
+            pendingUpdates.dispatchTo(new ComponentUpdateCallback(this));
         }
+        if (groupChanged) {
+            mObservable.notifyOnChanged();
+        }
+    }
+
+    /** @return True if a batch is open, see {@link #beginBatch()}. */
+    public boolean isInBatch() {
+        return mBatchDepth > 0;
     }
 
     /**
@@ -455,8 +786,11 @@ public class ComponentGroup extends Component {
             return;
         }
 
-        Component component = componentAt(i - getPositionOffset());
-        int index = i - rangeOf(component).mLower - getPositionOffset();
+        Cursor<Component> cursor =
+                mComponentAccordionList.find(i - getPositionOffset(), mLookupCursor);
+        Component component = cursor.mValue;
+        int index = cursor.mOffset;
+        mLookupCursor.clear();
 
         if (component.hasGap(index)) {
             return;
@@ -484,8 +818,11 @@ public class ComponentGroup extends Component {
             return;
         }
 
-        Component component = componentAt(i - getPositionOffset());
-        int index = i - rangeOf(component).mLower - getPositionOffset();
+        Cursor<Component> cursor =
+                mComponentAccordionList.find(i - getPositionOffset(), mLookupCursor);
+        Component component = cursor.mValue;
+        int index = cursor.mOffset;
+        mLookupCursor.clear();
 
         if (component.hasGap(index)) {
             return;
@@ -502,9 +839,9 @@ public class ComponentGroup extends Component {
      *
      *
      * <pre>
-     * Because Bento doesn't implement proper diffing
-     * (https://developer.android.com/reference/android/support/v7/util/DiffUtil.html)
-     * we notify that all items in the existing list have been changed and that the
+     * Because Bento can only diff the items of components that implement getItemKey
+     * (https://developer.android.com/reference/android/support/v7/util/DiffUtil.html),
+     * for the others we notify that all items in the existing list have been changed and that the
      * size of the list has changed. We notify the size change by saying the last x element have
      * been added or deleted.
      *
@@ -527,31 +864,89 @@ public class ComponentGroup extends Component {
         int oldSize = originalRange.getSize();
         int sizeChange = newSize - oldSize;
         if (sizeChange == 0) {
-            notifyItemRangeChanged(originalRange.mLower, newSize);
+            dispatchItemRangeChanged(originalRange.mLower, newSize);
         } else if (sizeChange > 0) {
-            notifyItemRangeChanged(originalRange.mLower, oldSize);
-            notifyItemRangeInserted(originalRange.mLower + oldSize, sizeChange);
+            dispatchItemRangeChanged(originalRange.mLower, oldSize);
+            dispatchItemRangeInserted(originalRange.mLower + oldSize, sizeChange);
         } else if (sizeChange < 0) {
-            notifyItemRangeChanged(originalRange.mLower, newSize);
-            notifyItemRangeRemoved(originalRange.mLower + newSize, Math.abs(sizeChange));
+            dispatchItemRangeChanged(originalRange.mLower, newSize);
+            dispatchItemRangeRemoved(originalRange.mLower + newSize, Math.abs(sizeChange));
+        }
+    }
+
+    private void dispatchItemRangeChanged(int positionStart, int itemCount) {
+        dispatchItemRangeChanged(positionStart, itemCount, null);
+    }
+
+    private void dispatchItemRangeChanged(
+            int positionStart, int itemCount, @Nullable Object payload) {
+        if (mPendingUpdates != null) {
+            mPendingUpdates.onChanged(positionStart, itemCount, payload);
+        } else if (payload == null) {
+            notifyItemRangeChanged(positionStart, itemCount);
+        } else {
+            notifyItemRangeChanged(positionStart, itemCount, payload);
+        }
+    }
+
+    private void dispatchItemRangeInserted(int positionStart, int itemCount) {
+        if (mPendingUpdates != null) {
+            mPendingUpdates.onInserted(positionStart, itemCount);
+        } else {
+            notifyItemRangeInserted(positionStart, itemCount);
+        }
+    }
+
+    private void dispatchItemRangeRemoved(int positionStart, int itemCount) {
+        if (mPendingUpdates != null) {
+            mPendingUpdates.onRemoved(positionStart, itemCount);
+        } else {
+            notifyItemRangeRemoved(positionStart, itemCount);
+        }
+    }
+
+    private void dispatchItemMoved(int fromPosition, int toPosition) {
+        if (mPendingUpdates != null) {
+            mPendingUpdates.onMoved(fromPosition, toPosition);
+        } else {
+            notifyItemMoved(fromPosition, toPosition);
+        }
+    }
+
+    /** Notifies observers that all the items changed, or records it if a batch is open. */
+    private void dispatchDataChanged() {
+        if (mPendingUpdates != null) {
+            mPendingUpdates.onDataChanged();
+        } else {
+            notifyDataChanged();
+        }
+    }
+
+    /**
+     * Notifies the {@link ComponentGroupDataObserver}s of a change, or records it if a batch is
+     * open.
+     */
+    private void dispatchGroupChanged() {
+        if (mPendingUpdates != null) {
+            mGroupChangedInBatch = true;
+        } else {
+            mObservable.notifyOnChanged();
         }
     }
 
     /**
      * Adds the provided {@link Component} to the {@link ComponentGroup} at the specified index and
-     * does the hard work of updating internal indices we use to order {@link Component}s within the
-     * the {@link ComponentGroup}.
+     * remembers the handle of its entry, from which we derive the index of the {@link Component}
+     * within the {@link ComponentGroup}.
      *
      * @param index The index at which to add the {@link Component}.
      * @param component The {@link Component} to add to this {@link ComponentGroup}.
      */
     private void addComponentAndUpdateIndices(int index, @NonNull Component component) {
-        // Add and update indices
         mComponentAccordionList.add(index, component, component.getCountInternal());
-        mComponentIndexMap.put(component, index);
-        for (int i = index + 1; i < mComponentAccordionList.size(); i++) {
-            mComponentIndexMap.put(mComponentAccordionList.get(i).mValue, i);
-        }
+        mNumberLanes = 0;
+        mComponentHandleMap.put(component, mComponentAccordionList.handleAt(index));
+        addParentGroup(component, this);
     }
 
     /**
@@ -566,7 +961,8 @@ public class ComponentGroup extends Component {
     private boolean remove(int index, @Nullable Component component) {
         Range range = mComponentAccordionList.get(index).mRange;
         mComponentAccordionList.remove(index);
-        notifyItemRangeRemoved(range.mLower, range.getSize());
+        mNumberLanes = 0;
+        dispatchItemRangeRemoved(range.mLower, range.getSize());
         if (component != null) {
             cleanupComponent(component);
         }
@@ -575,26 +971,127 @@ public class ComponentGroup extends Component {
 
     /**
      * A method to "clean up" after a component has been removed. - Removes all observers from the
-     * provided {@link Component}. - Updates the indices of all components in the component index
-     * map to reflect that the component is removed. - Notifies the {@link ComponentGroupObservable}
-     * that the component is removed.
+     * provided {@link Component}. - Forgets the handle of the component's entry. - Notifies the
+     * {@link ComponentGroupObservable} that the component is removed.
      *
      * @param component The component that has been removed.
      */
     private void cleanupComponent(@NonNull Component component) {
-        component.unregisterComponentDataObserver(mComponentDataObserverMap.get(component));
-        mComponentDataObserverMap.remove(component);
+        mComponentHandleMap.remove(component);
+        detachComponent(component);
+    }
 
-        int removalIndex = mComponentIndexMap.remove(component);
-        for (Entry<Component, Integer> entry : mComponentIndexMap.entrySet()) {
-            if (entry.getValue() > removalIndex) {
-                entry.setValue(entry.getValue() - 1);
+    /**
+     * Replaces the {@link Component} at the specified index in place. Unlike {@link
+     * #replaceComponent(int, Component)}, the items of the old component are reported as changed
+     * rather than removed, so that their views are rebound instead of being recreated.
+     *
+     * @param index The index of the component to replace.
+     * @param component The component that takes its place.
+     */
+    private void swapComponent(int index, @NonNull Component component) {
+        if (mComponentHandleMap.containsKey(component)) {
+            throw new IllegalArgumentException("Component " + component + " already added.");
+        }
+
+        RangedValue<Component> rangedValue = mComponentAccordionList.get(index);
+        mComponentAccordionList.set(index, component, component.getCountInternal());
+        mNumberLanes = 0;
+        mComponentHandleMap.remove(rangedValue.mValue);
+        mComponentHandleMap.put(component, mComponentAccordionList.handleAt(index));
+        detachComponent(rangedValue.mValue);
+        addParentGroup(component, this);
+        attachComponent(component);
+
+        notifyRangeUpdated(rangedValue.mRange, component.getCountInternal());
+        dispatchGroupChanged();
+    }
+
+    /**
+     * Moves the {@link Component} at the specified index to another index and reports each of its
+     * items as moved, so that their views are kept.
+     *
+     * @param fromIndex The current index of the component.
+     * @param toIndex The index of the component after the move.
+     */
+    private void moveComponent(int fromIndex, int toIndex) {
+        if (fromIndex == toIndex) {
+            return;
+        }
+
+        RangedValue<Component> rangedValue = mComponentAccordionList.get(fromIndex);
+        int fromLower = rangedValue.mRange.mLower;
+        int count = rangedValue.mRange.getSize();
+        mComponentAccordionList.remove(fromIndex);
+        mComponentAccordionList.add(toIndex, rangedValue.mValue, count);
+        mComponentHandleMap.put(rangedValue.mValue, mComponentAccordionList.handleAt(toIndex));
+        int toLower = mComponentAccordionList.get(toIndex).mRange.mLower;
+
+        // RecyclerView only knows how to move single items, so the items are moved one by one.
+        for (int i = 0; i < count; i++) {
+            if (toLower < fromLower) {
+                dispatchItemMoved(fromLower + i, toLower + i);
+            } else {
+                dispatchItemMoved(fromLower, toLower + count - 1);
             }
         }
+        dispatchGroupChanged();
+    }
+
+    /**
+     * @return The key that {@link #setComponents(List)} matches the provided {@link Component} by.
+     */
+    @NonNull
+    private static Object keyOf(@NonNull Component component) {
+        Object key = component.getComponentKey();
+        return key != null ? key : component;
+    }
 
+    /**
+     * Starts observing the provided {@link Component}, which has just been added to this group.
+     *
+     * @param component The component that has been added.
+     */
+    private void attachComponent(@NonNull Component component) {
+        ComponentDataObserver componentDataObserver = new ChildComponentDataObserver(component);
+        component.registerComponentDataObserver(componentDataObserver);
+        mComponentDataObserverMap.put(component, componentDataObserver);
+    }
+
+    /**
+     * Removes the observer this group registered on the provided {@link Component} and notifies
+     * the {@link ComponentGroupObservable} that the component is removed.
+     *
+     * @param component The component that has been removed.
+     */
+    private void detachComponent(@NonNull Component component) {
+        component.unregisterComponentDataObserver(mComponentDataObserverMap.remove(component));
+        if (component.getComponentKey() == null) {
+            // The ids of a keyed component are kept for the component that replaces it.
+            mItemIds.release(component);
+        }
+        removeParentGroup(component, this);
         mObservable.notifyOnComponentRemoved(component);
     }
 
+    private static void addParentGroup(
+            @NonNull Component component, @NonNull ComponentGroup group) {
+        if (component.mParentGroups == null) {
+            component.mParentGroups = new ArrayList<>(1);
+        }
+        component.mParentGroups.add(group);
+    }
+
+    private static void removeParentGroup(
+            @NonNull Component component, @NonNull ComponentGroup group) {
+        if (component.mParentGroups != null) {
+            component.mParentGroups.remove(group);
+            if (component.mParentGroups.isEmpty()) {
+                component.mParentGroups = null;
+            }
+        }
+    }
+
     /**
      * An observer that listens for changes to a Components's internals and then updates the {@link
      * AccordionList} so that we can keep track of the position of each internal item in the
@@ -604,63 +1101,408 @@ public class ComponentGroup extends Component {
 
         private final Component mComponent;
 
+        /**
+         * The keys and data items of the internal items of the component as of its last
+         * notification, from which we find out what changed when it notifies a data change. Null if
+         * the component does not support item diffing, see {@link Component#getItemKey(int)}.
+         */
+        @Nullable private List<Object> mItemKeys;
+
+        @Nullable private List<Object> mItems;
+
         private ChildComponentDataObserver(@NonNull Component component) {
             mComponent = component;
+            captureItems();
+        }
+
+        /**
+         * Any change may come with a different number of lanes for the component. Only the groups
+         * on the path to the component are invalidated, so recomputing stays cheap. Has to run
+         * before the change is propagated, since observers up the tree (e.g. the controller) read
+         * the number of lanes in response.
+         */
+        private void invalidateNumberLanes() {
+            mNumberLanes = 0;
         }
 
         @Override
         public void onChanged() {
-            int listPosition = mComponentIndexMap.get(mComponent);
+            invalidateNumberLanes();
+            int listPosition = indexOf(mComponent);
             Range originalRange = mComponentAccordionList.get(listPosition).mRange;
             int newSize = mComponent.getCountInternal();
             mComponentAccordionList.set(listPosition, mComponent, newSize);
 
-            notifyRangeUpdated(originalRange, newSize);
-            mObservable.notifyOnChanged();
+            List<Object> oldItemKeys = mItemKeys;
+            List<Object> oldItems = mItems;
+            captureItems();
+            if (oldItemKeys != null && mItemKeys != null) {
+                boolean traced = BentoTrace.beginSection(Section.APPLY_DIFF, mComponent.getClass());
+                try {
+                    DiffUtil.calculateDiff(
+                                    new ItemDiffCallback(
+                                            mComponent, oldItemKeys, oldItems, mItemKeys, mItems))
+                            .dispatchUpdatesTo(new OffsetUpdateCallback(originalRange.mLower));
+                } finally {
+                    if (traced) {
+                        BentoTrace.endSection();
+                    }
+                }
+            } else {
+                notifyRangeUpdated(originalRange, newSize);
+            }
+            dispatchGroupChanged();
         }
 
         @Override
         public void onItemRangeChanged(int positionStart, int itemCount) {
-            int listPosition = mComponentIndexMap.get(mComponent);
+            onItemRangeChanged(positionStart, itemCount, null);
+        }
+
+        @Override
+        public void onItemRangeChanged(
+                int positionStart, int itemCount, @Nullable Object payload) {
+            invalidateNumberLanes();
+            int listPosition = indexOf(mComponent);
             Range originalRange = mComponentAccordionList.get(listPosition).mRange;
+            if (mItemKeys != null && positionStart + itemCount <= mItemKeys.size()) {
+                for (int i = positionStart; i < positionStart + itemCount; i++) {
+                    mItemKeys.set(i, itemKeyAt(mComponent, i));
+                    mItems.set(i, mComponent.getItemInternal(i));
+                }
+                checkItemKeys();
+            } else {
+                dropItems();
+            }
 
-            notifyItemRangeChanged(originalRange.mLower + positionStart, itemCount);
-            mObservable.notifyOnChanged();
+            dispatchItemRangeChanged(originalRange.mLower + positionStart, itemCount, payload);
+            dispatchGroupChanged();
         }
 
         @Override
         public void onItemRangeInserted(int positionStart, int itemCount) {
-            int listPosition = mComponentIndexMap.get(mComponent);
+            invalidateNumberLanes();
+            int listPosition = indexOf(mComponent);
             Range originalRange = mComponentAccordionList.get(listPosition).mRange;
             mComponentAccordionList.set(
                     listPosition,
                     mComponentAccordionList.get(listPosition).mValue,
                     originalRange.getSize() + itemCount);
+            if (mItemKeys != null && positionStart <= mItemKeys.size()) {
+                for (int i = positionStart; i < positionStart + itemCount; i++) {
+                    mItemKeys.add(i, itemKeyAt(mComponent, i));
+                    mItems.add(i, mComponent.getItemInternal(i));
+                }
+                checkItemKeys();
+            } else {
+                dropItems();
+            }
 
-            notifyItemRangeInserted(originalRange.mLower + positionStart, itemCount);
-            mObservable.notifyOnChanged();
+            dispatchItemRangeInserted(originalRange.mLower + positionStart, itemCount);
+            dispatchGroupChanged();
         }
 
         @Override
         public void onItemRangeRemoved(int positionStart, int itemCount) {
-            int listPosition = mComponentIndexMap.get(mComponent);
+            invalidateNumberLanes();
+            int listPosition = indexOf(mComponent);
             Range originalRange = mComponentAccordionList.get(listPosition).mRange;
             mComponentAccordionList.set(
                     listPosition,
                     mComponentAccordionList.get(listPosition).mValue,
                     originalRange.getSize() - itemCount);
+            if (mItemKeys != null && positionStart + itemCount <= mItemKeys.size()) {
+                mItemKeys.subList(positionStart, positionStart + itemCount).clear();
+                mItems.subList(positionStart, positionStart + itemCount).clear();
+            } else {
+                dropItems();
+            }
 
-            notifyItemRangeRemoved(originalRange.mLower + positionStart, itemCount);
-            mObservable.notifyOnChanged();
+            dispatchItemRangeRemoved(originalRange.mLower + positionStart, itemCount);
+            dispatchGroupChanged();
         }
 
         @Override
         public void onItemMoved(int fromPosition, int toPosition) {
-            int listPosition = mComponentIndexMap.get(mComponent);
+            invalidateNumberLanes();
+            int listPosition = indexOf(mComponent);
             Range originalRange = mComponentAccordionList.get(listPosition).mRange;
+            if (mItemKeys != null
+                    && fromPosition < mItemKeys.size()
+                    && toPosition < mItemKeys.size()) {
+                mItemKeys.add(toPosition, mItemKeys.remove(fromPosition));
+                mItems.add(toPosition, mItems.remove(fromPosition));
+            } else {
+                dropItems();
+            }
 
-            notifyItemMoved(originalRange.mLower + fromPosition, originalRange.mLower + toPosition);
-            mObservable.notifyOnChanged();
+            dispatchItemMoved(
+                    originalRange.mLower + fromPosition, originalRange.mLower + toPosition);
+            dispatchGroupChanged();
+        }
+
+        /** Records the keys and data items of the component, if all of its items have a key. */
+        private void captureItems() {
+            int count = mComponent.getCountInternal();
+            mItemKeys = new ArrayList<>(count);
+            mItems = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Object key = itemKeyAt(mComponent, i);
+                if (key == null) {
+                    mItemKeys = null;
+                    mItems = null;
+                    return;
+                }
+                mItemKeys.add(key);
+                mItems.add(mComponent.getItemInternal(i));
+            }
+        }
+
+        /** Stops diffing the component if one of its items no longer has a key. */
+        private void checkItemKeys() {
+            if (mItemKeys.contains(null)) {
+                dropItems();
+            }
+        }
+
+        /**
+         * Forgets the recorded items, e.g. because a notification did not fit them, so that the
+         * next data change is reported as a change of the whole range instead of being diffed
+         * against items that are out of date. Diffing resumes with the items recorded then.
+         */
+        private void dropItems() {
+            mItemKeys = null;
+            mItems = null;
+        }
+    }
+
+    /**
+     * @return The key of the internal item at the specified position of the component, including
+     *     gaps, or null if the item has no key.
+     */
+    @Nullable
+    private static Object itemKeyAt(@NonNull Component component, int position) {
+        if (component.hasGap(position)) {
+            return position == 0 && component.getPositionOffset() > 0
+                    ? START_GAP_KEY
+                    : END_GAP_KEY;
+        }
+        return component.getItemKey(position - component.getPositionOffset());
+    }
+
+    /** Forwards the changes of a child, found by diffing its items, at the position of the child. */
+    private class OffsetUpdateCallback implements ListUpdateCallback {
+
+        private final int mOffset;
+
+        private OffsetUpdateCallback(int offset) {
+            mOffset = offset;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            dispatchItemRangeInserted(mOffset + position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            dispatchItemRangeRemoved(mOffset + position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            dispatchItemMoved(mOffset + fromPosition, mOffset + toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            dispatchItemRangeChanged(mOffset + position, count, payload);
+        }
+    }
+
+    /** Compares the items of a component before and after it notified a data change. */
+    private static final class ItemDiffCallback extends DiffUtil.Callback {
+
+        private final Component mComponent;
+        private final List<Object> mOldItemKeys;
+        private final List<Object> mOldItems;
+        private final List<Object> mNewItemKeys;
+        private final List<Object> mNewItems;
+
+        private ItemDiffCallback(
+                @NonNull Component component,
+                @NonNull List<Object> oldItemKeys,
+                @NonNull List<Object> oldItems,
+                @NonNull List<Object> newItemKeys,
+                @NonNull List<Object> newItems) {
+            mComponent = component;
+            mOldItemKeys = oldItemKeys;
+            mOldItems = oldItems;
+            mNewItemKeys = newItemKeys;
+            mNewItems = newItems;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldItemKeys.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewItemKeys.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldItemKeys.get(oldItemPosition).equals(mNewItemKeys.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            Object oldItem = mOldItems.get(oldItemPosition);
+            Object newItem = mNewItems.get(newItemPosition);
+            Object key = mOldItemKeys.get(oldItemPosition);
+            if (key == START_GAP_KEY || key == END_GAP_KEY) {
+                return oldItem.equals(newItem);
+            }
+            return mComponent.areItemContentsTheSame(oldItem, newItem);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            Object key = mOldItemKeys.get(oldItemPosition);
+            if (key == START_GAP_KEY || key == END_GAP_KEY) {
+                return null;
+            }
+            return mComponent.getItemChangePayload(
+                    mOldItems.get(oldItemPosition), mNewItems.get(newItemPosition));
+        }
+    }
+
+    /**
+     * Immutable view of the layout of a {@link ComponentGroup} at the time {@link
+     * ComponentGroup#snapshot()} was called. Safe to read from any thread.
+     */
+    public static final class Snapshot {
+
+        private final ComponentGroup mGroup;
+        private final AccordionList.Snapshot<Component> mComponents;
+        private final Map<Component, Snapshot> mChildSnapshots;
+        private final boolean mHasStartGap;
+        private final boolean mHasEndGap;
+
+        private Snapshot(@NonNull ComponentGroup group) {
+            mGroup = group;
+            mComponents = group.mComponentAccordionList.snapshot();
+            mChildSnapshots = new HashMap<>();
+            for (RangedValue<Component> rangedValue : mComponents) {
+                if (rangedValue.mValue instanceof ComponentGroup) {
+                    ComponentGroup child = (ComponentGroup) rangedValue.mValue;
+                    mChildSnapshots.put(child, child.snapshot());
+                }
+            }
+            mHasStartGap = hasStartGap(group);
+            mHasEndGap = hasEndGap(group);
+        }
+
+        /** Whether this snapshot still describes its group. Main thread only. */
+        private boolean isCurrent() {
+            if (mGroup.mComponentAccordionList.snapshot() != mComponents
+                    || mHasStartGap != hasStartGap(mGroup)
+                    || mHasEndGap != hasEndGap(mGroup)) {
+                return false;
+            }
+            for (Entry<Component, Snapshot> entry : mChildSnapshots.entrySet()) {
+                if (((ComponentGroup) entry.getKey()).snapshot() != entry.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** @return The group this snapshot was taken of. */
+        @NonNull
+        public ComponentGroup getGroup() {
+            return mGroup;
+        }
+
+        /** @return The number of components in the group. */
+        public int getSize() {
+            return mComponents.size();
+        }
+
+        /** @return The component at the specified index in the group. */
+        @NonNull
+        public Component get(int index) {
+            return mComponents.get(index).mValue;
+        }
+
+        /** @return The total number of internal items across all components, without gaps. */
+        public int getCount() {
+            return mComponents.span().mUpper;
+        }
+
+        /** @return The total number of items of the group, including its gaps. */
+        public int getCountInternal() {
+            return getCount() + (mHasStartGap ? 1 : 0) + (mHasEndGap ? 1 : 0);
+        }
+
+        /**
+         * @param position The position of an item across all components in the group.
+         * @return The {@link Component} associated with the range this position belongs to.
+         */
+        @NonNull
+        public Component componentAt(int position) {
+            return mComponents.valueAt(position);
+        }
+
+        /**
+         * @param component A component of the group.
+         * @return The snapshot of the provided component if it is a nested group, or null.
+         */
+        @Nullable
+        public Snapshot getChildSnapshot(@NonNull Component component) {
+            return mChildSnapshots.get(component);
+        }
+
+        /** See {@link ComponentGroup#findComponentWithIndex(int, Cursor)}. */
+        @NonNull
+        public Cursor<Component> findComponentWithIndex(
+                int index, @NonNull Cursor<Component> cursor) {
+            Snapshot snapshot = this;
+            int base = 0;
+            while (true) {
+                if (snapshot.hasGap(index)) {
+                    cursor.set(snapshot.mGroup, -1, base, base + snapshot.getCount(), index);
+                    return cursor;
+                }
+
+                snapshot.mComponents.find(index, cursor);
+                Snapshot child = snapshot.mChildSnapshots.get(cursor.mValue);
+                if (child != null) {
+                    base += cursor.mLower;
+                    index = cursor.mOffset;
+                    snapshot = child;
+                } else {
+                    cursor.mLower += base;
+                    cursor.mUpper += base;
+                    return cursor;
+                }
+            }
+        }
+
+        private boolean hasGap(int position) {
+            return mHasStartGap && position == 0
+                    || mHasEndGap && position == getCountInternal() - 1;
+        }
+
+        private static boolean hasStartGap(@NonNull ComponentGroup group) {
+            return group.getPositionOffset() > 0;
+        }
+
+        private static boolean hasEndGap(@NonNull ComponentGroup group) {
+            return group.getCountInternal() > group.getCount() + group.getPositionOffset();
         }
     }
 
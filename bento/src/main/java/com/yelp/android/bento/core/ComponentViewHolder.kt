@@ -9,11 +9,12 @@ import android.view.ViewGroup
  * responsible for inflating the associated view (when necessary) and populating the views with
  * data. The data will be provided by the adapter and will be of type T.
  *
- * ** NOTE: Subclasses must provide a no-arg constructor and be visible from this package **
+ * ** NOTE: Subclasses must provide a no-arg constructor, unless a [ViewHolderFactory] is
+ * registered for them **
  *
- * This class will be instantiated by the [ComponentController] when needed, by calling the
- * no-arg constructor. Unfortunately, this means all subclasses must be visible from this package
- * and provide a no-arg constructor.
+ * This class will be instantiated by the [ComponentController] when needed, through
+ * [ViewHolderFactories]. Register a factory to avoid reflection or to pass arguments to the
+ * constructor. Otherwise, the no-arg constructor is called.
  */
 abstract class ComponentViewHolder<P, T> {
 
@@ -42,6 +43,17 @@ abstract class ComponentViewHolder<P, T> {
      */
     abstract fun bind(presenter: P, element: T)
 
+    /**
+     * Called instead of [bind] when the item changed with one or more payloads, see
+     * [Component.notifyItemRangeChanged]. Override to update only the views affected by the
+     * payloads, e.g. a like counter, instead of the whole item. By default, rebinds the whole item.
+     *
+     * @param payloads The payloads of the changes since the item was last bound. Never empty.
+     */
+    open fun bind(presenter: P, element: T, payloads: List<Any>) {
+        bind(presenter, element)
+    }
+
     /**
      * Called when a view has been attached to a window.
      * See [android.support.v7.widget.RecyclerView.Adapter.onViewAttachedToWindow]
@@ -171,16 +171,15 @@ class ComponentVisibilityListener(
     }
 
     /**
-     * Alright, this is kinda jank. Bento doesn't currently do proper diff calculation of its
-     * components, this means we notify that all items within a component have changed even if only
-     * one has done so. Furthermore, notifyItemRangeInserted and notifyItemRangeRemoved will not
-     * have the appropriate indices that were inserted or removed. Instead, they will simply say
-     * something in this range has been inserted or removed (ie. the size of the range is accurate,
-     * but there is no information on the index that was added/removed).
+     * Alright, this is kinda jank. Bento only diffs the items of components that implement
+     * [Component.getItemKey]. For the other components, we notify that all items within a
+     * component have changed even if only one has done so. Furthermore, notifyItemRangeInserted
+     * and notifyItemRangeRemoved will not have the appropriate indices that were inserted or
+     * removed. Instead, they will simply say something in this range has been inserted or removed
+     * (ie. the size of the range is accurate, but there is no information on the index that was
+     * added/removed).
      *
      * See javadoc on [ComponentGroup.notifyRangeUpdated] for more.
-     *
-     * TODO: Fix this when Bento has better diff calculation.
      */
     override fun onItemRangeChanged(positionStart: Int, itemCount: Int) {
         val firstVisible = layoutManagerHelper.findFirstVisibleItemPosition()
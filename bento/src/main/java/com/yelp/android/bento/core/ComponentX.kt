@@ -20,3 +20,17 @@ fun Component.asItemSequence(): Sequence<Any?> {
         ComponentIterator(this)
     }
 }
+
+/**
+ * Notifies the observers of the changes made to the group in [block] at once. See
+ * [ComponentGroup.beginBatch].
+ */
+inline fun <T : ComponentGroup> T.batch(block: T.() -> Unit): T {
+    beginBatch()
+    try {
+        block()
+    } finally {
+        commitBatch()
+    }
+    return this
+}
@@ -0,0 +1,69 @@
+package com.yelp.android.bento.core
+
+import java.util.ArrayDeque
+import java.util.concurrent.Executor
+
+/**
+ * Runs the tasks of many independent lanes on a shared [Executor]. Each lane runs its tasks one at
+ * a time and in order, like a single thread executor would, while the lanes run concurrently with
+ * each other. Lanes take turns: after running one task, a lane goes to the back of the line, so a
+ * lane with a long queue cannot hold up the others.
+ *
+ * Used by [AsyncInflationBridge] to give every controller its own ordered lane without letting a
+ * busy screen block the lists of another.
+ */
+internal class FairLaneExecutor(private val executor: Executor) {
+
+    /** The lanes that have tasks and are not running one, in the order they get to run. */
+    private val readyLanes = ArrayDeque<Lane>()
+
+    /** @return A new lane whose tasks run in order, one at a time. */
+    fun newLane(): Executor = Lane()
+
+    private fun schedule(lane: Lane) {
+        synchronized(readyLanes) {
+            readyLanes.add(lane)
+        }
+        executor.execute(::runNext)
+    }
+
+    /** Runs one task of the lane at the front of the line. Called once per scheduled lane. */
+    private fun runNext() {
+        val lane = synchronized(readyLanes) { readyLanes.poll() } ?: return
+        lane.runOne()
+    }
+
+    private inner class Lane : Executor {
+
+        private val tasks = ArrayDeque<Runnable>()
+
+        /** Whether the lane is waiting in [readyLanes] or running a task. */
+        private var active = false
+
+        override fun execute(task: Runnable) {
+            val wasActive = synchronized(tasks) {
+                tasks.add(task)
+                active.also { active = true }
+            }
+            if (!wasActive) {
+                schedule(this)
+            }
+        }
+
+        fun runOne() {
+            val task = synchronized(tasks) {
+                tasks.poll().also { if (it == null) active = false }
+            } ?: return
+            try {
+                task.run()
+            } finally {
+                val hasMore = synchronized(tasks) {
+                    tasks.isNotEmpty().also { active = it }
+                }
+                if (hasMore) {
+                    schedule(this)
+                }
+            }
+        }
+    }
+}
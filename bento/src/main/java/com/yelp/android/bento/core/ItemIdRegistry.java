@@ -0,0 +1,86 @@
+package com.yelp.android.bento.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out the item ids of a {@link ComponentGroup}. An item is identified by the namespace of
+ * its component, see {@link Component#getItemIdNamespace()}, and by its item key, compared with
+ * {@link Object#equals(Object)}, or its item id if it has no key. Every identity gets the next free
+ * id the first time it is seen and keeps it, so two different items never share an id, unlike
+ * with hashes of their keys.
+ *
+ * <p>Must only be used from the main thread.
+ */
+final class ItemIdRegistry {
+
+    private final Map<Object, Map<ItemIdentity, Long>> mIds = new HashMap<>();
+
+    /** Reused to look identities up without allocating. */
+    private final ItemIdentity mProbe = new ItemIdentity();
+
+    private long mNextId;
+
+    /**
+     * @param namespace The namespace of the item's component.
+     * @param itemKey The key of the item, or null if it has none.
+     * @param itemId The id of the item within its component. Ignored if the item has a key.
+     * @return The id of the item, never {@link androidx.recyclerview.widget.RecyclerView#NO_ID}.
+     */
+    long idOf(@NonNull Object namespace, @Nullable Object itemKey, long itemId) {
+        Map<ItemIdentity, Long> ids = mIds.get(namespace);
+        if (ids == null) {
+            ids = new HashMap<>();
+            mIds.put(namespace, ids);
+        }
+        mProbe.set(itemKey, itemKey != null ? 0 : itemId);
+        Long id = ids.get(mProbe);
+        if (id == null) {
+            id = mNextId++;
+            ItemIdentity identity = new ItemIdentity();
+            identity.set(mProbe.mKey, mProbe.mId);
+            ids.put(identity, id);
+        }
+        mProbe.set(null, 0);
+        return id;
+    }
+
+    /**
+     * Forgets the ids of the items of a namespace, e.g. once a component without a key is removed
+     * and its items can never come back.
+     */
+    void release(@NonNull Object namespace) {
+        mIds.remove(namespace);
+    }
+
+    private static final class ItemIdentity {
+
+        @Nullable private Object mKey;
+        private long mId;
+
+        void set(@Nullable Object key, long id) {
+            mKey = key;
+            mId = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ItemIdentity)) {
+                return false;
+            }
+            ItemIdentity other = (ItemIdentity) o;
+            return mId == other.mId
+                    && (mKey == null ? other.mKey == null : mKey.equals(other.mKey));
+        }
+
+        @Override
+        public int hashCode() {
+            return mKey != null ? mKey.hashCode() : (int) (mId ^ (mId >>> 32));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.yelp.android.bento.core
+
+import java.lang.reflect.Constructor
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Creates new instances of a [ComponentViewHolder] type. Register one with
+ * [ViewHolderFactories.register] to have Bento create the view holder without reflection, or to
+ * pass arguments to its constructor.
+ */
+fun interface ViewHolderFactory<out VH : ComponentViewHolder<*, *>> {
+    fun create(): VH
+}
+
+/**
+ * The registry every component controller, and the async inflation bridge, use to create
+ * [ComponentViewHolder]s. View holder types without a registered factory fall back to their no-arg
+ * constructor, which is looked up once per type and cached.
+ *
+ * Usage:
+ * ViewHolderFactories.register(BusinessViewHolder::class.java) { BusinessViewHolder(imageLoader) }
+ */
+object ViewHolderFactories {
+
+    private val factories =
+            ConcurrentHashMap<Class<out ComponentViewHolder<*, *>>, ViewHolderFactory<*>>()
+
+    /**
+     * Registers the factory used to create view holders of the given type, replacing any previous
+     * one. Safe to call from any thread.
+     */
+    @JvmStatic
+    fun <VH : ComponentViewHolder<*, *>> register(
+        holderType: Class<VH>,
+        factory: ViewHolderFactory<VH>
+    ) {
+        factories[holderType] = factory
+    }
+
+    /**
+     * Removes the factory registered for the given type, so that its no-arg constructor is used
+     * again.
+     */
+    @JvmStatic
+    fun unregister(holderType: Class<out ComponentViewHolder<*, *>>) {
+        factories.remove(holderType)
+    }
+
+    /**
+     * Creates a view holder of the given type. Safe to call from any thread.
+     *
+     * @throws RuntimeException if there is no factory for the type and it could not be
+     * instantiated with its no-arg constructor.
+     */
+    @JvmStatic
+    @Suppress("UNCHECKED_CAST")
+    fun <VH : ComponentViewHolder<*, *>> create(holderType: Class<out VH>): VH {
+        val factory = factories[holderType] ?: constructorFactory(holderType).also {
+            factories.putIfAbsent(holderType, it)
+        }
+        return factory.create() as VH
+    }
+
+    private fun constructorFactory(
+        holderType: Class<out ComponentViewHolder<*, *>>
+    ): ViewHolderFactory<*> {
+        val constructor: Constructor<out ComponentViewHolder<*, *>> = try {
+            holderType.getDeclaredConstructor().apply { isAccessible = true }
+        } catch (e: ReflectiveOperationException) {
+            throw RuntimeException("Failed to instantiate view holder", e)
+        } catch (e: SecurityException) {
+            throw RuntimeException("Failed to instantiate view holder", e)
+        }
+        return ViewHolderFactory {
+            try {
+                constructor.newInstance()
+            } catch (e: ReflectiveOperationException) {
+                throw RuntimeException("Failed to instantiate view holder", e)
+            }
+        }
+    }
+}
@@ -3,8 +3,11 @@ package com.yelp.android.bento.core;
 
 import android.view.View;
 
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.List;
+
 /**
  * Wrapper class for ViewHolders that allows {@link ComponentViewHolder}s to have an empty
  * constructor and perform view inflation post-instantiation. (This is necessary because
@@ -16,20 +19,51 @@ public class ViewHolderWrapper<P, T> extends RecyclerView.ViewHolder {
 
     private ComponentViewHolder<P, T> mViewHolder;
 
+    // Whether the view holder was recycled and has not been bound since.
+    private boolean mRecycled;
+
+    @Nullable private Class<? extends Component> mComponentType;
+
     public ViewHolderWrapper(View itemView, ComponentViewHolder<P, T> viewHolder) {
         super(itemView);
         mViewHolder = viewHolder;
     }
 
     public void bind(P presenter, int position, T element) {
+        mRecycled = false;
         mViewHolder.setAbsolutePosition(position);
         mViewHolder.bind(presenter, element);
     }
 
+    public void bind(P presenter, int position, T element, List<Object> payloads) {
+        mRecycled = false;
+        mViewHolder.setAbsolutePosition(position);
+        mViewHolder.bind(presenter, element, payloads);
+    }
+
     public void onViewRecycled() {
+        mRecycled = true;
         mViewHolder.onViewRecycled();
     }
 
+    /**
+     * @return True if the view holder was recycled since it was last bound, so binding it again
+     *     reuses it from the recycled view pool.
+     */
+    public boolean wasRecycled() {
+        return mRecycled;
+    }
+
+    /** @return The type of the component the view holder was last bound for, if recorded. */
+    @Nullable
+    public Class<? extends Component> getComponentType() {
+        return mComponentType;
+    }
+
+    public void setComponentType(@Nullable Class<? extends Component> componentType) {
+        mComponentType = componentType;
+    }
+
     public void setAbsolutePosition(int currentIndex) {
         mViewHolder.setAbsolutePosition(currentIndex);
     }
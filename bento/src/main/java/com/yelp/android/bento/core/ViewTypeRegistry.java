@@ -0,0 +1,107 @@
+package com.yelp.android.bento.core;
+
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns small, dense view types (0, 1, 2, ...) to keys, usually {@link ComponentViewHolder}
+ * classes, so that the key of a view type can be read from an array and view types never collide.
+ *
+ * <p>The component controllers backed by a {@link androidx.recyclerview.widget.RecyclerView} all
+ * use the {@link #shared()} registry, so a view holder class has the same view type in every one of
+ * them and their recycled view pools can be shared. A view type is never handed to another key,
+ * because a shared pool may still hold views of it.
+ *
+ * <p>Controllers {@link #acquire(Object)} the keys used by their components and {@link
+ * #release(Object)} them when the components are removed. Once a key is no longer used anywhere,
+ * its views are dropped from the pool of the controller that released it, see {@link
+ * com.yelp.android.bento.utils.RecycledViewPoolSizer#onViewTypeReleased}.
+ *
+ * <p>All methods are thread safe.
+ *
+ * @param <K> The type of the keys.
+ */
+public final class ViewTypeRegistry<K> {
+
+    private static final ViewTypeRegistry<Class<? extends ComponentViewHolder>> SHARED =
+            new ViewTypeRegistry<>();
+
+    private final Map<K, Integer> mViewTypes = new HashMap<>();
+
+    /** The key of each view type, indexed by view type. */
+    private final List<K> mKeys = new ArrayList<>();
+
+    /** The number of references to each view type, indexed by view type. */
+    private int[] mReferenceCounts = new int[16];
+
+    /** @return The registry shared by all component controllers. */
+    @NonNull
+    public static ViewTypeRegistry<Class<? extends ComponentViewHolder>> shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return The view type of the key, assigned the first time the key is seen.
+     */
+    public synchronized int viewTypeOf(@NonNull K key) {
+        Integer viewType = mViewTypes.get(key);
+        if (viewType == null) {
+            viewType = mKeys.size();
+            mViewTypes.put(key, viewType);
+            mKeys.add(key);
+            if (viewType == mReferenceCounts.length) {
+                mReferenceCounts = Arrays.copyOf(mReferenceCounts, viewType * 2);
+            }
+        }
+        return viewType;
+    }
+
+    /**
+     * @param viewType A view type returned by this registry.
+     * @return The key the view type was assigned to.
+     */
+    @NonNull
+    public synchronized K keyOf(int viewType) {
+        return mKeys.get(viewType);
+    }
+
+    /** @return The number of view types assigned so far. All view types are lower than it. */
+    public synchronized int size() {
+        return mKeys.size();
+    }
+
+    /**
+     * Adds a reference to the key, assigning it a view type if needed.
+     *
+     * @return The view type of the key.
+     */
+    public synchronized int acquire(@NonNull K key) {
+        int viewType = viewTypeOf(key);
+        mReferenceCounts[viewType]++;
+        return viewType;
+    }
+
+    /**
+     * Removes a reference added by {@link #acquire(Object)}.
+     *
+     * @return True if that was the last reference to the key.
+     */
+    public synchronized boolean release(@NonNull K key) {
+        Integer viewType = mViewTypes.get(key);
+        if (viewType == null || mReferenceCounts[viewType] == 0) {
+            throw new IllegalStateException("Released " + key + " more times than acquired.");
+        }
+        return --mReferenceCounts[viewType] == 0;
+    }
+
+    /** @return True if the key has been acquired more times than released. */
+    public synchronized boolean isInUse(@NonNull K key) {
+        Integer viewType = mViewTypes.get(key);
+        return viewType != null && mReferenceCounts[viewType] > 0;
+    }
+}
@@ -4,7 +4,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.yelp.android.bento.utils.AccordionList.RangedValue;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -15,10 +15,101 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
  * A continuous ordered list of sized entries that starts from zero and keeps track of the range
  * that each entry occupies across additions, updates, and removals. Queries look up the entry
  * associated with the range.
+ *
+ * <p>Entries are stored in an implicit treap where every node caches the number of entries and the
+ * total size of its subtree. Ranges are therefore never stored explicitly; they are derived from
+ * the subtree sizes while descending the tree. This makes {@link #add(int, Object, int)}, {@link
+ * #set(int, Object, int)}, {@link #remove(int)}, {@link #get(int)} and {@link #rangedValueAt(int)}
+ * all run in expected O(log n) time, no matter where in the list the change happens.
+ *
+ * <p>The nodes are not objects. A node is an index into a set of parallel primitive arrays (plus
+ * one array for the values), so a list of n entries costs a handful of arrays rather than n node
+ * objects, and {@link Range}s and {@link RangedValue}s are only created when a caller asks for one.
+ * Index 0 is a sentinel that stands for "no node" and has an empty subtree, so the tree code never
+ * has to check for null. Removed nodes are recycled through a free list.
+ *
+ * <p>Lookups are usually sequential (e.g. while scrolling), so the list remembers the last entry it
+ * found together with its range and index (the finger). Every node is also threaded to its
+ * in-order neighbours, which lets a lookup that lands on or next to the finger be answered in O(1)
+ * before falling back to a search from the root. Any modification invalidates the finger. Because
+ * lookups update the finger, they must not run concurrently with each other either.
+ *
+ * <p>Threads other than the one modifying the list should read from a {@link #snapshot()}
+ * instead. A snapshot shares the arrays of the list; the list copies them the first time it is
+ * modified after a snapshot was taken, so taking snapshots while nothing changes is free.
  */
 public class AccordionList<T> implements Iterable<RangedValue<T>> {
 
-    private List<RangedValue<T>> mRangeList = new ArrayList<>();
+    /** The sentinel node index, used wherever a tree would otherwise hold a null reference. */
+    private static final int NIL = 0;
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /**
+     * How many entries a lookup may walk away from the finger before giving up and searching from
+     * the root. Empty entries take a step too, so this is a bit larger than one.
+     */
+    private static final int FINGER_REACH = 3;
+
+    /** The value of each node. */
+    private Object[] mValues;
+
+    /** The size of each node's own entry. */
+    private int[] mSizes;
+
+    /** The total size of the subtree rooted at each node. */
+    private int[] mSpans;
+
+    /** The number of entries in the subtree rooted at each node. */
+    private int[] mCounts;
+
+    private int[] mPriorities;
+    private int[] mLefts;
+    private int[] mRights;
+
+    /** The parent of each node, used to compute the index of a node from its handle. */
+    private int[] mParents;
+
+    /** The in-order neighbours of each node, used to move the finger without searching. */
+    private int[] mPrevs;
+
+    private int[] mNexts;
+
+    /** The root of the treap, or {@link #NIL} when the list is empty. */
+    private int mRoot = NIL;
+
+    /** The first node index that has never been handed out. */
+    private int mNodeLimit = 1;
+
+    /** The head of the list of recycled nodes, chained through {@link #mNexts}. */
+    private int mFreeHead = NIL;
+
+    /** State of the xorshift generator used to assign node priorities. */
+    private int mPrioritySeed = 0x2545F491;
+
+    /** Out parameters of {@link #split(int, int)} so splitting can return two nodes. */
+    private int mSplitLeft;
+
+    private int mSplitRight;
+
+    /** The node found by the last lookup, or NIL if it was invalidated by a modification. */
+    private int mFinger = NIL;
+
+    /** The lower endpoint of the range of {@link #mFinger}. */
+    private int mFingerLower;
+
+    /** The entry index of {@link #mFinger}. */
+    private int mFingerIndex;
+
+    private long mFingerHits;
+    private long mFingerMisses;
+
+    /** The snapshot sharing the current arrays, or null if the arrays are not shared. */
+    @Nullable private Snapshot<T> mSnapshot;
+
+    public AccordionList() {
+        allocateArrays(DEFAULT_CAPACITY);
+    }
 
     /** Returns an iterator for the AccordionList. Not concurrent modification safe. */
     @NonNull
@@ -29,7 +120,11 @@ public class AccordionList<T> implements Iterable<RangedValue<T>> {
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(mRangeList).toHashCode();
+        HashCodeBuilder builder = new HashCodeBuilder();
+        for (RangedValue<T> rangedValue : this) {
+            builder.append(rangedValue);
+        }
+        return builder.toHashCode();
     }
 
     @Override
@@ -48,37 +143,84 @@ public class AccordionList<T> implements Iterable<RangedValue<T>> {
 
         AccordionList that = (AccordionList) object;
 
-        return new EqualsBuilder().append(this.mRangeList, that.mRangeList).isEquals();
+        if (this.size() != that.size()) {
+            return false;
+        }
+
+        EqualsBuilder builder = new EqualsBuilder();
+        for (int i = 0; i < size(); i++) {
+            builder.append(this.get(i), that.get(i));
+        }
+        return builder.isEquals();
     }
 
     /** Returns the value associated with the range this location belongs to. */
     @NonNull
     public T valueAt(int location) {
-        return rangedValueAt(location).mValue;
+        return valueOf(findNodeAt(location));
     }
 
     /** Returns the range and its associated value that this location belongs to. */
     @NonNull
     public RangedValue<T> rangedValueAt(int location) {
-        int foundLocation = Collections.binarySearch(mRangeList, location);
+        return fingerValue(findNodeAt(location));
+    }
 
-        if (foundLocation < 0) {
-            throw new ArrayIndexOutOfBoundsException(
-                    "Could not find value at index: "
-                            + location
-                            + ".\n"
-                            + "BinarySearch returned: "
-                            + foundLocation
-                            + ".\n"
-                            + describeAccordionList());
-        }
-        return mRangeList.get(foundLocation);
+    /**
+     * Looks up the entry whose range contains the location and writes it into the provided cursor
+     * instead of allocating a {@link RangedValue}. Callers on hot paths should keep and reuse a
+     * single cursor.
+     *
+     * @param location The location to look up.
+     * @param cursor The caller-owned cursor to fill.
+     * @return The provided cursor, for convenience.
+     */
+    @NonNull
+    public Cursor<T> find(int location, @NonNull Cursor<T> cursor) {
+        int node = findNodeAt(location);
+        cursor.set(
+                valueOf(node),
+                mFingerIndex,
+                mFingerLower,
+                mFingerLower + mSizes[node],
+                location - mFingerLower);
+        return cursor;
     }
 
     /** Returns the indexed range and its associated value. */
     @NonNull
     public RangedValue<T> get(int entryIndex) {
-        return mRangeList.get(entryIndex);
+        return fingerValue(findNodeByIndex(entryIndex));
+    }
+
+    /**
+     * Returns a handle to the entry at the specified position. A handle keeps referring to the
+     * same entry while other entries are added or removed and while the entry is {@link #set(int,
+     * Object, int) set}, so it can be stored instead of the entry's index, which would have to be
+     * renumbered on every change. The handle becomes invalid once the entry is removed and may then
+     * be reused for a new entry.
+     *
+     * @param entryIndex The position of the entry
+     * @return The handle of the entry, always greater than zero.
+     */
+    public int handleAt(int entryIndex) {
+        return findNodeByIndex(entryIndex);
+    }
+
+    /**
+     * Returns the current position of the entry with the specified handle in O(log n).
+     *
+     * @param handle A handle obtained from {@link #handleAt(int)} whose entry was not removed.
+     */
+    public int indexOfHandle(int handle) {
+        int index = mCounts[mLefts[handle]];
+        for (int node = handle; mParents[node] != NIL; node = mParents[node]) {
+            int parent = mParents[node];
+            if (mRights[parent] == node) {
+                index += mCounts[mLefts[parent]] + 1;
+            }
+        }
+        return index;
     }
 
     /**
@@ -87,17 +229,16 @@ public class AccordionList<T> implements Iterable<RangedValue<T>> {
      */
     @NonNull
     public Range span() {
-        return new Range(
-                0, mRangeList.isEmpty() ? 0 : mRangeList.get(mRangeList.size() - 1).mRange.mUpper);
+        return new Range(0, mSpans[mRoot]);
     }
 
     /** Returns the number of entries in the {@link AccordionList}. */
     public int size() {
-        return mRangeList.size();
+        return mCounts[mRoot];
     }
 
     public boolean isEmpty() {
-        return mRangeList.isEmpty();
+        return mRoot == NIL;
     }
 
     /**
@@ -107,7 +248,7 @@ public class AccordionList<T> implements Iterable<RangedValue<T>> {
      * @param size Size to associate with the value. Cannot be negative.
      */
     public void add(@NonNull T value, int size) {
-        add(mRangeList.size(), value, size);
+        add(size(), value, size);
     }
 
     /**
@@ -121,21 +262,140 @@ public class AccordionList<T> implements Iterable<RangedValue<T>> {
         if (size < 0) {
             throw new IllegalArgumentException("Size cannot be negative.");
         }
+        checkEntryIndex(entryIndex, size() + 1);
+        prepareForWrite();
 
-        int sizeAtPosition = entryIndex == 0 ? 0 : mRangeList.get(entryIndex - 1).mRange.mUpper;
-        mRangeList.add(
-                entryIndex,
-                new RangedValue<T>(value, new Range(sizeAtPosition, sizeAtPosition + size)));
-        // Update following sections.
-        for (int i = entryIndex + 1; i < mRangeList.size(); i++) {
-            mRangeList.set(i, mRangeList.get(i).offset(size));
-        }
+        split(mRoot, entryIndex);
+        int left = mSplitLeft;
+        int right = mSplitRight;
+
+        int node = allocateNode(value, size);
+        link(last(left), node);
+        link(node, first(right));
+        setRoot(merge(merge(left, node), right));
     }
 
     public void addAll(@NonNull AccordionList<T> values) {
+        List<T> entries = new ArrayList<>(values.size());
+        int[] sizes = new int[values.size()];
         for (RangedValue<T> value : values) {
-            add(value.mValue, value.mRange.getSize());
+            sizes[entries.size()] = value.mRange.getSize();
+            entries.add(value.mValue);
+        }
+        addAll(size(), entries, sizes);
+    }
+
+    /**
+     * Inserts all the specified entries at the specified position in this list. The new entries
+     * are assembled into a subtree in linear time and joined with the existing entries once, so
+     * this is much cheaper than adding the entries one at a time.
+     *
+     * @param entryIndex Position at which to insert the first entry
+     * @param values Values to insert, in order
+     * @param sizes Sizes to associate with the values, parallel to {@code values}. Cannot be
+     *     negative.
+     */
+    public void addAll(int entryIndex, @NonNull List<? extends T> values, @NonNull int[] sizes) {
+        if (values.size() != sizes.length) {
+            throw new IllegalArgumentException(
+                    "Got " + values.size() + " values but " + sizes.length + " sizes.");
+        }
+        checkSizes(sizes);
+        checkEntryIndex(entryIndex, size() + 1);
+        if (values.isEmpty()) {
+            return;
+        }
+        prepareForWrite();
+        ensureCapacity(mNodeLimit + sizes.length);
+
+        // Build a treap out of the new entries with a stack holding its right spine. Every node
+        // is pushed and popped at most once, and its in-order neighbour links are set on the go.
+        int[] spine = new int[sizes.length];
+        int spineSize = 0;
+        int first = NIL;
+        int previous = NIL;
+        for (int i = 0; i < sizes.length; i++) {
+            int node = allocateNode(values.get(i), sizes[i]);
+            if (previous == NIL) {
+                first = node;
+            } else {
+                link(previous, node);
+            }
+            previous = node;
+
+            int popped = NIL;
+            while (spineSize > 0 && mPriorities[spine[spineSize - 1]] < mPriorities[node]) {
+                popped = spine[--spineSize];
+            }
+            mLefts[node] = popped;
+            if (spineSize > 0) {
+                mRights[spine[spineSize - 1]] = node;
+            }
+            spine[spineSize++] = node;
+        }
+        int subtree = spine[0];
+        updateAll(subtree);
+
+        split(mRoot, entryIndex);
+        int left = mSplitLeft;
+        int right = mSplitRight;
+        link(last(left), first);
+        link(previous, first(right));
+        setRoot(merge(merge(left, subtree), right));
+    }
+
+    /**
+     * Removes all entries whose index is between {@code fromIndex}, inclusive, and {@code
+     * toIndex}, exclusive, in a single pass.
+     *
+     * @param fromIndex Index of the first entry to remove
+     * @param toIndex Index after the last entry to remove
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        checkEntryRange(fromIndex, toIndex);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        prepareForWrite();
+
+        split(mRoot, toIndex);
+        int right = mSplitRight;
+        split(mSplitLeft, fromIndex);
+        int left = mSplitLeft;
+        int middle = mSplitRight;
+        link(last(left), first(right));
+        setRoot(merge(left, right));
+        freeAll(middle);
+    }
+
+    /**
+     * Updates the sizes of consecutive entries, keeping their values. All entry ranges are
+     * recomputed once for the whole batch instead of once per entry.
+     *
+     * @param fromIndex Index of the first entry to resize
+     * @param sizes New sizes for the entries starting at {@code fromIndex}. Cannot be negative.
+     */
+    public void setSizes(int fromIndex, @NonNull int[] sizes) {
+        checkSizes(sizes);
+        checkEntryRange(fromIndex, fromIndex + sizes.length);
+        if (sizes.length == 0) {
+            return;
+        }
+        prepareForWrite();
+
+        split(mRoot, fromIndex + sizes.length);
+        int right = mSplitRight;
+        split(mSplitLeft, fromIndex);
+        int left = mSplitLeft;
+        int middle = mSplitRight;
+
+        int node = first(middle);
+        for (int size : sizes) {
+            mSizes[node] = size;
+            node = mNexts[node];
         }
+        updateAll(middle);
+        setRoot(merge(merge(left, middle), right));
     }
 
     /**
@@ -149,39 +409,432 @@ public class AccordionList<T> implements Iterable<RangedValue<T>> {
         if (size < 0) {
             throw new IllegalArgumentException("Size cannot be negative.");
         }
+        checkEntryIndex(entryIndex, size());
+        prepareForWrite();
 
-        int sizeAtPosition = entryIndex == 0 ? 0 : mRangeList.get(entryIndex - 1).mRange.mUpper;
-        int offset = size - mRangeList.get(entryIndex).mRange.getSize();
-        mRangeList.set(
-                entryIndex,
-                new RangedValue<T>(value, new Range(sizeAtPosition, sizeAtPosition + size)));
-        // Update following sections.
-        for (int i = entryIndex + 1; i < mRangeList.size(); i++) {
-            mRangeList.set(i, mRangeList.get(i).offset(offset));
-        }
+        set(mRoot, entryIndex, value, size);
     }
 
     public void clear() {
-        mRangeList.clear();
+        if (mSnapshot != null) {
+            // The snapshot still needs the arrays, so start over with fresh ones.
+            allocateArrays(DEFAULT_CAPACITY);
+            mSnapshot = null;
+        } else {
+            // Drop the values so they can be collected; the arrays are kept for reuse.
+            Arrays.fill(mValues, 0, mNodeLimit, null);
+        }
+        mRoot = NIL;
+        mNodeLimit = 1;
+        mFreeHead = NIL;
+        mFinger = NIL;
     }
 
     public void remove(int entryIndex) {
-        int offset = -mRangeList.get(entryIndex).mRange.getSize();
-        mRangeList.remove(entryIndex);
-        // Update following sections.
-        for (int i = entryIndex; i < mRangeList.size(); i++) {
-            mRangeList.set(i, mRangeList.get(i).offset(offset));
+        checkEntryIndex(entryIndex, size());
+        prepareForWrite();
+
+        setRoot(remove(mRoot, entryIndex));
+    }
+
+    /**
+     * Returns an immutable view of the current entries that can be safely read from any thread
+     * while this list keeps being modified. Successive calls without modifications in between
+     * return the same snapshot.
+     */
+    @NonNull
+    public Snapshot<T> snapshot() {
+        if (mSnapshot == null) {
+            mSnapshot = new Snapshot<>(this);
+        }
+        return mSnapshot;
+    }
+
+    /**
+     * Returns how many lookups were answered from the finger, i.e. from the entry found by the
+     * previous lookup or one of its neighbours, without searching from the root.
+     */
+    public long getFingerHitCount() {
+        return mFingerHits;
+    }
+
+    /** Returns how many lookups had to search from the root. */
+    public long getFingerMissCount() {
+        return mFingerMisses;
+    }
+
+    /** Resets the finger hit and miss counters. */
+    public void resetFingerStats() {
+        mFingerHits = 0;
+        mFingerMisses = 0;
+    }
+
+    /** Finds the node at the entry index and moves the finger to it. */
+    private int findNodeByIndex(int entryIndex) {
+        checkEntryIndex(entryIndex, size());
+
+        int node = mFinger;
+        if (node != NIL) {
+            // Sequential iteration only ever moves the finger to a direct neighbour.
+            if (entryIndex == mFingerIndex + 1) {
+                setFinger(mNexts[node], mFingerLower + mSizes[node], entryIndex);
+            } else if (entryIndex == mFingerIndex - 1) {
+                int previous = mPrevs[node];
+                setFinger(previous, mFingerLower - mSizes[previous], entryIndex);
+            }
+            if (entryIndex == mFingerIndex) {
+                mFingerHits++;
+                return mFinger;
+            }
+        }
+        mFingerMisses++;
+
+        node = mRoot;
+        int index = entryIndex;
+        int lower = 0;
+        while (true) {
+            int leftCount = mCounts[mLefts[node]];
+            if (index < leftCount) {
+                node = mLefts[node];
+            } else if (index == leftCount) {
+                setFinger(node, lower + mSpans[mLefts[node]], entryIndex);
+                return node;
+            } else {
+                index -= leftCount + 1;
+                lower += mSpans[mLefts[node]] + mSizes[node];
+                node = mRights[node];
+            }
+        }
+    }
+
+    /**
+     * Finds the node whose range contains the location and moves the finger to it.
+     *
+     * @throws ArrayIndexOutOfBoundsException if the location is outside of the span.
+     */
+    private int findNodeAt(int location) {
+        checkLocation(location);
+
+        int node = mFinger;
+        if (node != NIL) {
+            int lower = mFingerLower;
+            int index = mFingerIndex;
+            if (location >= lower) {
+                for (int step = 0; step <= FINGER_REACH && node != NIL; step++) {
+                    if (location < lower + mSizes[node]) {
+                        mFingerHits++;
+                        setFinger(node, lower, index);
+                        return node;
+                    }
+                    lower += mSizes[node];
+                    index++;
+                    node = mNexts[node];
+                }
+            } else {
+                for (int step = 0; step < FINGER_REACH && mPrevs[node] != NIL; step++) {
+                    node = mPrevs[node];
+                    lower -= mSizes[node];
+                    index--;
+                    if (location >= lower) {
+                        mFingerHits++;
+                        setFinger(node, lower, index);
+                        return node;
+                    }
+                }
+            }
+        }
+        mFingerMisses++;
+
+        node = mRoot;
+        int remaining = location;
+        int lower = 0;
+        int index = 0;
+        while (true) {
+            int left = mLefts[node];
+            if (remaining < mSpans[left]) {
+                node = left;
+            } else if (remaining < mSpans[left] + mSizes[node]) {
+                setFinger(node, lower + mSpans[left], index + mCounts[left]);
+                return node;
+            } else {
+                remaining -= mSpans[left] + mSizes[node];
+                lower += mSpans[left] + mSizes[node];
+                index += mCounts[left] + 1;
+                node = mRights[node];
+            }
+        }
+    }
+
+    /**
+     * Splits the subtree so that its first {@code count} entries end up in {@link #mSplitLeft} and
+     * the rest in {@link #mSplitRight}.
+     */
+    private void split(int node, int count) {
+        if (node == NIL) {
+            mSplitLeft = NIL;
+            mSplitRight = NIL;
+            return;
+        }
+
+        int leftCount = mCounts[mLefts[node]];
+        if (leftCount < count) {
+            split(mRights[node], count - leftCount - 1);
+            mRights[node] = mSplitLeft;
+            update(node);
+            mSplitLeft = node;
+        } else {
+            split(mLefts[node], count);
+            mLefts[node] = mSplitRight;
+            update(node);
+            mSplitRight = node;
+        }
+    }
+
+    /** Concatenates two subtrees, keeping the heap order of their priorities. */
+    private int merge(int left, int right) {
+        if (left == NIL) {
+            return right;
+        } else if (right == NIL) {
+            return left;
+        } else if (mPriorities[left] > mPriorities[right]) {
+            mRights[left] = merge(mRights[left], right);
+            update(left);
+            return left;
+        } else {
+            mLefts[right] = merge(left, mLefts[right]);
+            update(right);
+            return right;
+        }
+    }
+
+    private void set(int node, int entryIndex, @NonNull T value, int size) {
+        int leftCount = mCounts[mLefts[node]];
+        if (entryIndex < leftCount) {
+            set(mLefts[node], entryIndex, value, size);
+        } else if (entryIndex == leftCount) {
+            mValues[node] = value;
+            mSizes[node] = size;
+        } else {
+            set(mRights[node], entryIndex - leftCount - 1, value, size);
+        }
+        update(node);
+    }
+
+    private int remove(int node, int entryIndex) {
+        int leftCount = mCounts[mLefts[node]];
+        if (entryIndex == leftCount) {
+            link(mPrevs[node], mNexts[node]);
+            int merged = merge(mLefts[node], mRights[node]);
+            freeNode(node);
+            return merged;
+        } else if (entryIndex < leftCount) {
+            mLefts[node] = remove(mLefts[node], entryIndex);
+        } else {
+            mRights[node] = remove(mRights[node], entryIndex - leftCount - 1);
+        }
+        update(node);
+        return node;
+    }
+
+    private void setRoot(int root) {
+        mRoot = root;
+        mParents[root] = NIL;
+    }
+
+    /** Must be called before any of the arrays are modified. */
+    private void prepareForWrite() {
+        mFinger = NIL;
+        if (mSnapshot != null) {
+            // The snapshot keeps the current arrays, so continue on copies of them.
+            resizeArrays(mValues.length);
+            mSnapshot = null;
+        }
+    }
+
+    /** Recomputes the cached subtree values of a node from its children and adopts them. */
+    private void update(int node) {
+        int left = mLefts[node];
+        int right = mRights[node];
+        mCounts[node] = 1 + mCounts[left] + mCounts[right];
+        mSpans[node] = mSizes[node] + mSpans[left] + mSpans[right];
+        // The sentinel's parent is never read, so it does not matter that it gets overwritten.
+        mParents[left] = node;
+        mParents[right] = node;
+    }
+
+    /** Recomputes the cached subtree values of every node in the subtree, bottom up. */
+    private void updateAll(int node) {
+        if (node != NIL) {
+            updateAll(mLefts[node]);
+            updateAll(mRights[node]);
+            update(node);
+        }
+    }
+
+    /** Makes two nodes in-order neighbours. Either of them may be NIL at the list's ends. */
+    private void link(int previous, int next) {
+        if (previous != NIL) {
+            mNexts[previous] = next;
+        }
+        if (next != NIL) {
+            mPrevs[next] = previous;
+        }
+    }
+
+    private int first(int node) {
+        if (node != NIL) {
+            while (mLefts[node] != NIL) {
+                node = mLefts[node];
+            }
+        }
+        return node;
+    }
+
+    private int last(int node) {
+        if (node != NIL) {
+            while (mRights[node] != NIL) {
+                node = mRights[node];
+            }
+        }
+        return node;
+    }
+
+    private void setFinger(int node, int lower, int entryIndex) {
+        mFinger = node;
+        mFingerLower = lower;
+        mFingerIndex = entryIndex;
+    }
+
+    @SuppressWarnings("unchecked") // Only values of type T are ever stored.
+    private T valueOf(int node) {
+        return (T) mValues[node];
+    }
+
+    /** Creates a {@link RangedValue} for the node, which must be the current finger. */
+    @NonNull
+    private RangedValue<T> fingerValue(int node) {
+        Range range = new Range(mFingerLower, mFingerLower + mSizes[node]);
+        return new RangedValue<>(valueOf(node), range);
+    }
+
+    private int allocateNode(@NonNull T value, int size) {
+        int node;
+        if (mFreeHead != NIL) {
+            node = mFreeHead;
+            mFreeHead = mNexts[node];
+        } else {
+            ensureCapacity(mNodeLimit + 1);
+            node = mNodeLimit++;
+        }
+
+        mValues[node] = value;
+        mSizes[node] = size;
+        mSpans[node] = size;
+        mCounts[node] = 1;
+        mPriorities[node] = nextPriority();
+        mLefts[node] = NIL;
+        mRights[node] = NIL;
+        mParents[node] = NIL;
+        mPrevs[node] = NIL;
+        mNexts[node] = NIL;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        mValues[node] = null;
+        mNexts[node] = mFreeHead;
+        mFreeHead = node;
+    }
+
+    private void freeAll(int node) {
+        if (node != NIL) {
+            freeAll(mLefts[node]);
+            freeAll(mRights[node]);
+            freeNode(node);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mValues.length) {
+            resizeArrays(Math.max(capacity, mValues.length * 2));
+        }
+    }
+
+    private void allocateArrays(int capacity) {
+        mValues = new Object[capacity];
+        mSizes = new int[capacity];
+        mSpans = new int[capacity];
+        mCounts = new int[capacity];
+        mPriorities = new int[capacity];
+        mLefts = new int[capacity];
+        mRights = new int[capacity];
+        mParents = new int[capacity];
+        mPrevs = new int[capacity];
+        mNexts = new int[capacity];
+    }
+
+    private void resizeArrays(int capacity) {
+        mValues = Arrays.copyOf(mValues, capacity);
+        mSizes = Arrays.copyOf(mSizes, capacity);
+        mSpans = Arrays.copyOf(mSpans, capacity);
+        mCounts = Arrays.copyOf(mCounts, capacity);
+        mPriorities = Arrays.copyOf(mPriorities, capacity);
+        mLefts = Arrays.copyOf(mLefts, capacity);
+        mRights = Arrays.copyOf(mRights, capacity);
+        mParents = Arrays.copyOf(mParents, capacity);
+        mPrevs = Arrays.copyOf(mPrevs, capacity);
+        mNexts = Arrays.copyOf(mNexts, capacity);
+    }
+
+    private int nextPriority() {
+        int seed = mPrioritySeed;
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        mPrioritySeed = seed;
+        return seed;
+    }
+
+    private void checkLocation(int location) {
+        if (location < 0 || location >= mSpans[mRoot]) {
+            throw new ArrayIndexOutOfBoundsException(
+                    "Could not find value at index: "
+                            + location
+                            + ".\n"
+                            + describeAccordionList());
+        }
+    }
+
+    private static void checkEntryIndex(int entryIndex, int bound) {
+        if (entryIndex < 0 || entryIndex >= bound) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + entryIndex + ", Size: " + (bound == 0 ? 0 : bound - 1));
+        }
+    }
+
+    private void checkEntryRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException(
+                    "From: " + fromIndex + ", To: " + toIndex + ", Size: " + size());
+        }
+    }
+
+    private static void checkSizes(@NonNull int[] sizes) {
+        for (int size : sizes) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Size cannot be negative.");
+            }
         }
     }
 
     private String describeAccordionList() {
         StringBuilder builder = new StringBuilder();
         builder.append("AccordionList has size: ")
-                .append(mRangeList.size())
+                .append(size())
                 .append(". /n")
                 .append("Items in AccordionList:\n");
 
-        for (RangedValue<T> range : mRangeList) {
+        for (RangedValue<T> range : this) {
             builder.append(range.toString());
         }
 
@@ -190,7 +843,7 @@ public class AccordionList<T> implements Iterable<RangedValue<T>> {
 
     private class AccordionListIterator implements Iterator<RangedValue<T>> {
 
-        private int mRemaining = mRangeList.size();
+        private int mRemaining = size();
         private int removalIndex = -1;
 
         @Override
@@ -206,7 +859,7 @@ public class AccordionList<T> implements Iterable<RangedValue<T>> {
             }
 
             mRemaining--;
-            return mRangeList.get(removalIndex = mRangeList.size() - 1 - mRemaining);
+            return get(removalIndex = size() - 1 - mRemaining);
         }
 
         @Override
@@ -220,6 +873,205 @@ public class AccordionList<T> implements Iterable<RangedValue<T>> {
         }
     }
 
+    /**
+     * Immutable view of the entries of an {@link AccordionList} at the time {@link
+     * AccordionList#snapshot()} was called. It can be read from any thread without locking, and
+     * offers the same lookups as the list without the finger, so every lookup searches from the
+     * root.
+     *
+     * @param <T> The type of value
+     */
+    public static final class Snapshot<T> implements Iterable<RangedValue<T>> {
+
+        private final Object[] mValues;
+        private final int[] mSizes;
+        private final int[] mSpans;
+        private final int[] mCounts;
+        private final int[] mLefts;
+        private final int[] mRights;
+        private final int[] mNexts;
+        private final int mRoot;
+
+        private Snapshot(@NonNull AccordionList<T> list) {
+            mValues = list.mValues;
+            mSizes = list.mSizes;
+            mSpans = list.mSpans;
+            mCounts = list.mCounts;
+            mLefts = list.mLefts;
+            mRights = list.mRights;
+            mNexts = list.mNexts;
+            mRoot = list.mRoot;
+        }
+
+        /** Returns the number of entries in the snapshot. */
+        public int size() {
+            return mCounts[mRoot];
+        }
+
+        public boolean isEmpty() {
+            return mRoot == NIL;
+        }
+
+        /** Returns the span of the snapshot, which is the sum of all entry sizes. */
+        @NonNull
+        public Range span() {
+            return new Range(0, mSpans[mRoot]);
+        }
+
+        /** Returns the value associated with the range this location belongs to. */
+        @NonNull
+        public T valueAt(int location) {
+            return find(location, new Cursor<T>()).mValue;
+        }
+
+        /** Returns the range and its associated value that this location belongs to. */
+        @NonNull
+        public RangedValue<T> rangedValueAt(int location) {
+            Cursor<T> cursor = find(location, new Cursor<T>());
+            return new RangedValue<>(cursor.mValue, new Range(cursor.mLower, cursor.mUpper));
+        }
+
+        /** See {@link AccordionList#find(int, Cursor)}. */
+        @NonNull
+        public Cursor<T> find(int location, @NonNull Cursor<T> cursor) {
+            if (location < 0 || location >= mSpans[mRoot]) {
+                throw new ArrayIndexOutOfBoundsException(
+                        "Could not find value at index: " + location + ", Span: " + mSpans[mRoot]);
+            }
+
+            int node = mRoot;
+            int remaining = location;
+            int lower = 0;
+            int index = 0;
+            while (true) {
+                int left = mLefts[node];
+                if (remaining < mSpans[left]) {
+                    node = left;
+                } else if (remaining < mSpans[left] + mSizes[node]) {
+                    lower += mSpans[left];
+                    cursor.set(
+                            valueOf(node),
+                            index + mCounts[left],
+                            lower,
+                            lower + mSizes[node],
+                            location - lower);
+                    return cursor;
+                } else {
+                    remaining -= mSpans[left] + mSizes[node];
+                    lower += mSpans[left] + mSizes[node];
+                    index += mCounts[left] + 1;
+                    node = mRights[node];
+                }
+            }
+        }
+
+        /** Returns the indexed range and its associated value. */
+        @NonNull
+        public RangedValue<T> get(int entryIndex) {
+            checkEntryIndex(entryIndex, size());
+
+            int node = mRoot;
+            int lower = 0;
+            while (true) {
+                int left = mLefts[node];
+                if (entryIndex < mCounts[left]) {
+                    node = left;
+                } else if (entryIndex == mCounts[left]) {
+                    lower += mSpans[left];
+                    return new RangedValue<>(valueOf(node), new Range(lower, lower + mSizes[node]));
+                } else {
+                    entryIndex -= mCounts[left] + 1;
+                    lower += mSpans[left] + mSizes[node];
+                    node = mRights[node];
+                }
+            }
+        }
+
+        /** Returns an iterator over the entries, in order. */
+        @NonNull
+        @Override
+        public Iterator<RangedValue<T>> iterator() {
+            int first = mRoot;
+            while (first != NIL && mLefts[first] != NIL) {
+                first = mLefts[first];
+            }
+            final int start = first;
+
+            return new Iterator<RangedValue<T>>() {
+
+                private int mNode = start;
+                private int mLower = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return mNode != NIL;
+                }
+
+                @Override
+                public RangedValue<T> next() {
+                    if (mNode == NIL) {
+                        throw new NoSuchElementException();
+                    }
+
+                    int node = mNode;
+                    Range range = new Range(mLower, mLower + mSizes[node]);
+                    mLower = range.mUpper;
+                    mNode = mNexts[node];
+                    return new RangedValue<>(valueOf(node), range);
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked") // Only values of type T are ever stored.
+        private T valueOf(int node) {
+            return (T) mValues[node];
+        }
+    }
+
+    /**
+     * Mutable, reusable result of a lookup in an {@link AccordionList}. It holds the same
+     * information as a {@link RangedValue} plus the position of the entry in the list and the
+     * offset of the looked up location inside the entry, without boxing or allocating.
+     *
+     * @param <V> The type of value
+     */
+    public static class Cursor<V> {
+
+        /** The value of the entry that was found. */
+        public V mValue;
+
+        /** The index of the entry in the list. */
+        public int mEntryIndex = -1;
+
+        /** The lower endpoint (inclusive) of the entry's range. */
+        public int mLower;
+
+        /** The upper endpoint (exclusive) of the entry's range. */
+        public int mUpper;
+
+        /** The looked up location relative to the start of the entry's range. */
+        public int mOffset;
+
+        public void set(V value, int entryIndex, int lower, int upper, int offset) {
+            mValue = value;
+            mEntryIndex = entryIndex;
+            mLower = lower;
+            mUpper = upper;
+            mOffset = offset;
+        }
+
+        /** Drops the reference to the last value so the cursor does not leak it. */
+        public void clear() {
+            set(null, -1, 0, 0, 0);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Range: [" + mLower + ", " + mUpper + ")\nValue: " + mValue;
+        }
+    }
+
     /**
      * Immutable class for describing the range of two numeric values.
      *
@@ -0,0 +1,43 @@
+package com.yelp.android.bento.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.yelp.android.bento.core.Component;
+import com.yelp.android.bento.core.ComponentViewHolder;
+
+/**
+ * Receives how long the view holders of Bento screens take to be inflated, bound, attached and
+ * recycled. Set one with {@link BentoSettings#setMetrics(BentoMetrics)}. {@link
+ * HistogramBentoMetrics} aggregates the timings into histograms that can be reported by production
+ * monitoring, e.g. to find the view holders that blow the frame budget.
+ *
+ * <p>Called on the main thread, in the middle of layout, so implementations should be fast and
+ * should not allocate.
+ */
+public interface BentoMetrics {
+
+    /** The view holder operations that are timed. */
+    enum Event {
+        /** Creating the view holder and its view, including waiting for a pre-inflated view. */
+        INFLATE,
+        /** {@link ComponentViewHolder#bind(Object, Object)}. */
+        BIND,
+        /** {@link ComponentViewHolder#onViewAttachedToWindow()}. */
+        ATTACH,
+        /** {@link ComponentViewHolder#onViewRecycled()}. */
+        RECYCLE
+    }
+
+    /**
+     * @param event The operation that was timed.
+     * @param holderType The type of the view holder.
+     * @param componentType The type of the component the view holder was bound for, or null if it
+     *     is not known, e.g. when inflating.
+     * @param durationNanos How long the operation took.
+     */
+    void onViewHolderEvent(
+            @NonNull Event event,
+            @NonNull Class<? extends ComponentViewHolder> holderType,
+            @Nullable Class<? extends Component> componentType,
+            long durationNanos);
+}
@@ -13,4 +13,38 @@ object BentoSettings {
     @JvmStatic var asyncInflationEnabled = false
 
     @JvmStatic var loggingEnabled = false
+
+    /**
+     * Global toggle for the system trace sections added around Bento's inflation, binding and
+     * diffing, see [BentoTrace]. Useful to find the components that cause slow frames in Perfetto
+     * captures. It's disabled by default.
+     */
+    @JvmStatic var tracingEnabled = false
+
+    /**
+     * Global toggle for sharing one recycled view pool between all the
+     * [com.yelp.android.bento.componentcontrollers.RecyclerViewComponentController]s of an
+     * Activity, see [com.yelp.android.bento.componentcontrollers.SharedRecycledViewPools]. Only
+     * affects controllers created after it is changed. It's disabled by default.
+     */
+    @JvmStatic var sharedViewPoolsEnabled = false
+
+    /**
+     * Global toggle for stable item ids in the
+     * [com.yelp.android.bento.componentcontrollers.RecyclerViewComponentController],
+     * [com.yelp.android.bento.componentcontrollers.ViewPager2ComponentController] and
+     * [com.yelp.android.bento.componentcontrollers.ListViewComponentController]. With stable ids,
+     * the views of items that are still there after a data set change are rebound instead of
+     * rebuilt. Items are identified by [com.yelp.android.bento.core.Component.getItemKey], or by
+     * [com.yelp.android.bento.core.Component.getItemId] (the position by default) if they have no
+     * key. Only affects controllers created after it is changed. It's disabled by default.
+     */
+    @JvmStatic var stableIdsEnabled = false
+
+    /**
+     * Receives the inflate, bind, attach and recycle timings of the view holders of every
+     * [com.yelp.android.bento.componentcontrollers.RecyclerViewComponentController], or null to
+     * not time them. See [HistogramBentoMetrics].
+     */
+    @JvmStatic var metrics: BentoMetrics? = null
 }
@@ -0,0 +1,147 @@
+package com.yelp.android.bento.utils;
+
+import android.os.Trace;
+import androidx.annotation.NonNull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adds sections named after the components and view holders involved to system traces, e.g.
+ * Perfetto captures, so that slow frames can be attributed to the component that caused them.
+ * Only does anything while {@link BentoSettings#getTracingEnabled()} is set; otherwise every call
+ * returns right away without allocating.
+ *
+ * <p>Section names are built once per type and cached. Sections must be ended on the thread they
+ * were begun on:
+ *
+ * <pre>
+ * boolean traced = BentoTrace.beginSection(Section.BIND, holderType);
+ * try {
+ *     ...
+ * } finally {
+ *     if (traced) {
+ *         BentoTrace.endSection();
+ *     }
+ * }
+ * </pre>
+ */
+public final class BentoTrace {
+
+    /** Trace section names longer than this are rejected by {@link Trace}. */
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    /** The Bento operations that are traced. */
+    public enum Section {
+        INFLATE("inflate"),
+        ASYNC_INFLATE("asyncInflate"),
+        BIND("bind"),
+        RESOLVE_VIEW_TYPE("resolveViewType"),
+        APPLY_DIFF("applyDiff"),
+        DISPATCH_UPDATES("dispatchUpdates");
+
+        private final String mName;
+
+        private final Map<Class<?>, String> mNames = new ConcurrentHashMap<>();
+
+        private final Map<Class<?>, Map<Class<?>, String>> mPairNames = new ConcurrentHashMap<>();
+
+        Section(@NonNull String name) {
+            mName = "Bento " + name;
+        }
+
+        @NonNull
+        private String nameOf(@NonNull Class<?> type) {
+            String name = mNames.get(type);
+            if (name == null) {
+                name = truncate(mName + " " + type.getSimpleName());
+                mNames.put(type, name);
+            }
+            return name;
+        }
+
+        @NonNull
+        private String nameOf(@NonNull Class<?> componentType, @NonNull Class<?> holderType) {
+            Map<Class<?>, String> names = mPairNames.get(componentType);
+            if (names == null) {
+                names = new ConcurrentHashMap<>();
+                mPairNames.put(componentType, names);
+            }
+            String name = names.get(holderType);
+            if (name == null) {
+                name =
+                        truncate(
+                                mName
+                                        + " "
+                                        + componentType.getSimpleName()
+                                        + "/"
+                                        + holderType.getSimpleName());
+                names.put(holderType, name);
+            }
+            return name;
+        }
+    }
+
+    private BentoTrace() {}
+
+    /** @return True if trace sections are added, see {@link BentoSettings#getTracingEnabled()}. */
+    public static boolean isEnabled() {
+        return BentoSettings.getTracingEnabled();
+    }
+
+    /**
+     * Begins a section for an operation that is not tied to a type.
+     *
+     * @return True if a section was begun, in which case it must be ended with {@link
+     *     #endSection()}.
+     */
+    public static boolean beginSection(@NonNull Section section) {
+        if (!isEnabled()) {
+            return false;
+        }
+        Trace.beginSection(section.mName);
+        return true;
+    }
+
+    /**
+     * Begins a section named after the operation and a component or view holder type.
+     *
+     * @return True if a section was begun, in which case it must be ended with {@link
+     *     #endSection()}.
+     */
+    public static boolean beginSection(@NonNull Section section, @NonNull Class<?> type) {
+        if (!isEnabled()) {
+            return false;
+        }
+        Trace.beginSection(section.nameOf(type));
+        return true;
+    }
+
+    /**
+     * Begins a section named after the operation, a component type and a view holder type.
+     *
+     * @return True if a section was begun, in which case it must be ended with {@link
+     *     #endSection()}.
+     */
+    public static boolean beginSection(
+            @NonNull Section section,
+            @NonNull Class<?> componentType,
+            @NonNull Class<?> holderType) {
+        if (!isEnabled()) {
+            return false;
+        }
+        Trace.beginSection(section.nameOf(componentType, holderType));
+        return true;
+    }
+
+    /** Ends the last section begun on this thread. */
+    public static void endSection() {
+        Trace.endSection();
+    }
+
+    @NonNull
+    private static String truncate(@NonNull String name) {
+        return name.length() > MAX_SECTION_NAME_LENGTH
+                ? name.substring(0, MAX_SECTION_NAME_LENGTH)
+                : name;
+    }
+}
@@ -0,0 +1,118 @@
+package com.yelp.android.bento.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.yelp.android.bento.core.Component;
+import com.yelp.android.bento.core.ComponentViewHolder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link BentoMetrics} that keeps a {@link TimingHistogram} of each event for each view holder
+ * type and for each component type. Only the first event of a type allocates, later ones update
+ * the existing histograms in place.
+ *
+ * <p>Usage:
+ *
+ * <pre>
+ * HistogramBentoMetrics metrics = new HistogramBentoMetrics();
+ * BentoSettings.setMetrics(metrics);
+ * ...
+ * TimingHistogram binds = metrics.getViewHolderHistogram(Event.BIND, BusinessViewHolder.class);
+ * report(binds.getAverage(), binds.getPercentile(95));
+ * </pre>
+ *
+ * <p>Must only be used from the main thread.
+ */
+public final class HistogramBentoMetrics implements BentoMetrics {
+
+    private static final Event[] EVENTS = Event.values();
+
+    private final Map<Class<? extends ComponentViewHolder>, TimingHistogram[]>
+            mViewHolderHistograms = new HashMap<>();
+
+    private final Map<Class<? extends Component>, TimingHistogram[]> mComponentHistograms =
+            new HashMap<>();
+
+    @Override
+    public void onViewHolderEvent(
+            @NonNull Event event,
+            @NonNull Class<? extends ComponentViewHolder> holderType,
+            @Nullable Class<? extends Component> componentType,
+            long durationNanos) {
+        histogramsOf(mViewHolderHistograms, holderType)[event.ordinal()].record(durationNanos);
+        if (componentType != null) {
+            histogramsOf(mComponentHistograms, componentType)[event.ordinal()]
+                    .record(durationNanos);
+        }
+    }
+
+    /**
+     * @return The timings of the event for the view holder type, or null if the event never
+     *     happened to a view holder of that type.
+     */
+    @Nullable
+    public TimingHistogram getViewHolderHistogram(
+            @NonNull Event event, @NonNull Class<? extends ComponentViewHolder> holderType) {
+        TimingHistogram[] histograms = mViewHolderHistograms.get(holderType);
+        return histograms == null || histograms[event.ordinal()].getCount() == 0
+                ? null
+                : histograms[event.ordinal()];
+    }
+
+    /**
+     * @return The timings of the event for the view holders bound for components of the type, or
+     *     null if there are none.
+     */
+    @Nullable
+    public TimingHistogram getComponentHistogram(
+            @NonNull Event event, @NonNull Class<? extends Component> componentType) {
+        TimingHistogram[] histograms = mComponentHistograms.get(componentType);
+        return histograms == null || histograms[event.ordinal()].getCount() == 0
+                ? null
+                : histograms[event.ordinal()];
+    }
+
+    /** @return The view holder types that have had timings since they were first seen. */
+    @NonNull
+    public List<Class<? extends ComponentViewHolder>> getViewHolderTypes() {
+        return new ArrayList<>(mViewHolderHistograms.keySet());
+    }
+
+    /** @return The component types that have had timings since they were first seen. */
+    @NonNull
+    public List<Class<? extends Component>> getComponentTypes() {
+        return new ArrayList<>(mComponentHistograms.keySet());
+    }
+
+    /** Forgets all the timings, e.g. after they have been reported. */
+    public void reset() {
+        // The histograms are kept, so that recording does not allocate again.
+        for (TimingHistogram[] histograms : mViewHolderHistograms.values()) {
+            for (TimingHistogram histogram : histograms) {
+                histogram.reset();
+            }
+        }
+        for (TimingHistogram[] histograms : mComponentHistograms.values()) {
+            for (TimingHistogram histogram : histograms) {
+                histogram.reset();
+            }
+        }
+    }
+
+    @NonNull
+    private static <K> TimingHistogram[] histogramsOf(
+            @NonNull Map<K, TimingHistogram[]> histogramMap, @NonNull K key) {
+        TimingHistogram[] histograms = histogramMap.get(key);
+        if (histograms == null) {
+            histograms = new TimingHistogram[EVENTS.length];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new TimingHistogram();
+            }
+            histogramMap.put(key, histograms);
+        }
+        return histograms;
+    }
+}
@@ -58,4 +58,42 @@ public final class MathUtils {
             }
         }
     }
+
+    /**
+     * Finds a longest strictly increasing subsequence of the provided values in O(n log n).
+     *
+     * @param values The values to search.
+     * @return An array of the same length where the values that belong to the subsequence are
+     *     marked as true.
+     */
+    public static boolean[] longestIncreasingSubsequence(int[] values) {
+        // tails[k] is the index of the smallest value ending an increasing subsequence of length
+        // k + 1, and previous[i] the index of the value before values[i] in its subsequence.
+        int[] tails = new int[values.length];
+        int[] previous = new int[values.length];
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[tails[middle]] < values[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        boolean[] result = new boolean[values.length];
+        for (int i = length > 0 ? tails[length - 1] : -1; i != -1; i = previous[i]) {
+            result[i] = true;
+        }
+        return result;
+    }
 }
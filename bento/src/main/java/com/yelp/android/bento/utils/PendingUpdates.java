@@ -0,0 +1,199 @@
+package com.yelp.android.bento.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.BatchingListUpdateCallback;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Range notifications held back to be sent later in one go. They pass through a {@link
+ * BatchingListUpdateCallback}, which merges consecutive inserts, removes and changes of adjacent
+ * or overlapping ranges, and are kept in order until {@link #dispatchTo(ListUpdateCallback)}.
+ *
+ * <p>Once {@link #onDataChanged()} is called, the individual notifications are dropped, since
+ * everything has to be rebound anyway.
+ */
+public final class PendingUpdates implements ListUpdateCallback {
+
+    private static final int INSERTED = 0;
+    private static final int REMOVED = 1;
+    private static final int MOVED = 2;
+    private static final int CHANGED = 3;
+
+    private final BatchingListUpdateCallback mBatchingCallback =
+            new BatchingListUpdateCallback(new Recorder());
+
+    /** The recorded changes, each one as {type, first argument, second argument}. */
+    private final List<int[]> mUpdates = new ArrayList<>();
+
+    /** The payload of each recorded change, null for anything but a change with a payload. */
+    private final List<Object> mPayloads = new ArrayList<>();
+
+    /** Whether all items changed, which makes the individual changes irrelevant. */
+    private boolean mDataChanged;
+
+    /** Whether any notification was received since the last dispatch. */
+    private boolean mPending;
+
+    @Override
+    public void onInserted(int position, int count) {
+        mPending = true;
+        mBatchingCallback.onInserted(position, count);
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        mPending = true;
+        mBatchingCallback.onRemoved(position, count);
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        mPending = true;
+        mBatchingCallback.onMoved(fromPosition, toPosition);
+    }
+
+    @Override
+    public void onChanged(int position, int count, @Nullable Object payload) {
+        mPending = true;
+        mBatchingCallback.onChanged(position, count, payload);
+    }
+
+    /** Records that all the items changed. */
+    public void onDataChanged() {
+        mPending = true;
+        mDataChanged = true;
+        mUpdates.clear();
+        mPayloads.clear();
+    }
+
+    /** @return True if a notification was received since the last dispatch. */
+    public boolean isPending() {
+        return mPending;
+    }
+
+    /**
+     * @return True if {@link #onDataChanged()} was called since the last dispatch, in which case
+     *     {@link #dispatchTo(ListUpdateCallback)} sends nothing and the receiver has to be told
+     *     that everything changed instead.
+     */
+    public boolean isDataChanged() {
+        return mDataChanged;
+    }
+
+    /**
+     * Follows an item through the recorded changes, e.g. to find the item a receiver that has not
+     * been sent them yet refers to.
+     *
+     * @param position The position of the item before the recorded changes.
+     * @return The position of the item after them, or {@link RecyclerView#NO_POSITION} if it was
+     *     removed or all the items changed.
+     */
+    public int toCurrentPosition(int position) {
+        if (mDataChanged) {
+            return RecyclerView.NO_POSITION;
+        }
+        mBatchingCallback.dispatchLastEvent();
+        for (int i = 0; i < mUpdates.size(); i++) {
+            int[] update = mUpdates.get(i);
+            switch (update[0]) {
+                case INSERTED:
+                    if (position >= update[1]) {
+                        position += update[2];
+                    }
+                    break;
+                case REMOVED:
+                    if (position >= update[1] + update[2]) {
+                        position -= update[2];
+                    } else if (position >= update[1]) {
+                        return RecyclerView.NO_POSITION;
+                    }
+                    break;
+                case MOVED:
+                    if (position == update[1]) {
+                        position = update[2];
+                    } else if (update[1] < update[2]
+                            && position > update[1]
+                            && position <= update[2]) {
+                        position--;
+                    } else if (update[1] > update[2]
+                            && position >= update[2]
+                            && position < update[1]) {
+                        position++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return position;
+    }
+
+    /** Sends the recorded changes to the callback, in order, and clears them. */
+    public void dispatchTo(@NonNull ListUpdateCallback callback) {
+        mBatchingCallback.dispatchLastEvent();
+        List<int[]> updates = new ArrayList<>(mUpdates);
+        List<Object> payloads = new ArrayList<>(mPayloads);
+        clear();
+        for (int i = 0; i < updates.size(); i++) {
+            int[] update = updates.get(i);
+            switch (update[0]) {
+                case INSERTED:
+                    callback.onInserted(update[1], update[2]);
+                    break;
+                case REMOVED:
+                    callback.onRemoved(update[1], update[2]);
+                    break;
+                case MOVED:
+                    callback.onMoved(update[1], update[2]);
+                    break;
+                default:
+                    callback.onChanged(update[1], update[2], payloads.get(i));
+                    break;
+            }
+        }
+    }
+
+    /** Drops the recorded changes. */
+    public void clear() {
+        mBatchingCallback.dispatchLastEvent();
+        mUpdates.clear();
+        mPayloads.clear();
+        mDataChanged = false;
+        mPending = false;
+    }
+
+    /** Receives the merged notifications from {@link #mBatchingCallback}. */
+    private final class Recorder implements ListUpdateCallback {
+
+        @Override
+        public void onInserted(int position, int count) {
+            record(INSERTED, position, count, null);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            record(REMOVED, position, count, null);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            record(MOVED, fromPosition, toPosition, null);
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            record(CHANGED, position, count, payload);
+        }
+
+        private void record(int type, int first, int second, @Nullable Object payload) {
+            if (!mDataChanged) {
+                mUpdates.add(new int[] {type, first, second});
+                mPayloads.add(payload);
+            }
+        }
+    }
+}
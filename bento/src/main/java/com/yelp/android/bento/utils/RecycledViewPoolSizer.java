@@ -0,0 +1,202 @@
+package com.yelp.android.bento.utils;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView.RecycledViewPool;
+import com.yelp.android.bento.core.ViewTypeRegistry;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Sizes the capacity of each view type in a {@link RecycledViewPool} after the number of views of
+ * that type that were on screen at the same time, instead of the pool's default of five views per
+ * type. Grids with more than five items per screen, and carousels that share the pool of their
+ * parent, otherwise keep throwing away views the next row or carousel has to inflate again.
+ *
+ * <p>There is one sizer per pool, see {@link #of(RecycledViewPool)}, so every {@link
+ * androidx.recyclerview.widget.RecyclerView} sharing a pool adds its views to the same counts.
+ * Capacities only ever grow, to the larger of the peak number of views attached at once and the
+ * hint given with {@link #setCapacityHint(int, int)}. Once no component uses a view type anymore,
+ * its views are dropped from the pool of the controller that released it, see {@link
+ * #onViewTypeReleased}.
+ *
+ * <p>The sizer also counts how many view holders were served by the pool rather than created,
+ * which can be read with {@link #getHitCount()} and {@link #getMissCount()}.
+ *
+ * <p>Must only be used from the main thread.
+ */
+public final class RecycledViewPoolSizer {
+
+    /** The capacity {@link RecycledViewPool} gives each view type by default. */
+    public static final int DEFAULT_CAPACITY = 5;
+
+    private static final Map<RecycledViewPool, RecycledViewPoolSizer> SIZERS = new WeakHashMap<>();
+
+    // Weak, since the pool is the key of the sizer in SIZERS and would otherwise never be dropped.
+    private final WeakReference<RecycledViewPool> mPool;
+
+    // All indexed by view type, which are small and dense, see ViewTypeRegistry.
+    private int[] mAttached = new int[16];
+    private int[] mCapacities = new int[16];
+    private boolean[] mTrimmed = new boolean[16];
+
+    private int mHitCount;
+    private int mMissCount;
+
+    /**
+     * @param pool A recycled view pool.
+     * @return The sizer of the pool, created the first time the pool is seen.
+     */
+    @NonNull
+    public static RecycledViewPoolSizer of(@NonNull RecycledViewPool pool) {
+        RecycledViewPoolSizer sizer = SIZERS.get(pool);
+        if (sizer == null) {
+            sizer = new RecycledViewPoolSizer(pool);
+            SIZERS.put(pool, sizer);
+        }
+        return sizer;
+    }
+
+    private RecycledViewPoolSizer(@NonNull RecycledViewPool pool) {
+        mPool = new WeakReference<>(pool);
+    }
+
+    /**
+     * Call when {@link ViewTypeRegistry#release(Object)} returns true, i.e. when no component uses
+     * the key anymore. Components are often replaced by components using the same view holders,
+     * e.g. on refresh, and only acquire them again when they are laid out. So the views of the key
+     * are only dropped from this pool, see {@link #onViewTypeUnused(int)}, if the key is still not
+     * in use once the view has been laid out.
+     *
+     * @param view The view whose next layout the check waits for, usually the recycler view.
+     */
+    public <K> void onViewTypeReleased(
+            @NonNull final View view,
+            @NonNull final ViewTypeRegistry<K> registry,
+            @NonNull final K key) {
+        view.getViewTreeObserver()
+                .addOnPreDrawListener(
+                        new ViewTreeObserver.OnPreDrawListener() {
+                            @Override
+                            public boolean onPreDraw() {
+                                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                                if (!registry.isInUse(key)) {
+                                    onViewTypeUnused(registry.viewTypeOf(key));
+                                }
+                                return true;
+                            }
+                        });
+    }
+
+    /**
+     * Drops the views of a view type that no component uses anymore from the pool, instead of
+     * keeping them for good. The pool keeps views of the type again once it is given a capacity
+     * hint for it, which controllers do whenever a component starts using a view type.
+     */
+    public void onViewTypeUnused(int viewType) {
+        ensureViewType(viewType);
+        mTrimmed[viewType] = true;
+        setMaxRecycledViews(viewType, 0);
+    }
+
+    /** Call when a view of the given type is attached to the window. */
+    public void onViewAttached(int viewType) {
+        ensureViewType(viewType);
+        ensureCapacity(viewType, ++mAttached[viewType]);
+    }
+
+    /** Call when a view of the given type is detached from the window. */
+    public void onViewDetached(int viewType) {
+        ensureViewType(viewType);
+        // Views may have been attached while the recycler view was using another pool.
+        if (mAttached[viewType] > 0) {
+            mAttached[viewType]--;
+        }
+    }
+
+    /**
+     * Makes sure the pool can hold at least the given number of views of a type, e.g. because a
+     * component knows it is about to show more of them than fit on screen.
+     */
+    public void setCapacityHint(int viewType, int capacity) {
+        ensureViewType(viewType);
+        if (mTrimmed[viewType]) {
+            mTrimmed[viewType] = false;
+            setMaxRecycledViews(viewType, getCapacity(viewType));
+        }
+        ensureCapacity(viewType, capacity);
+    }
+
+    /**
+     * Gives another pool at least the capacities of this one, e.g. when a recycler view switches
+     * to it, so that the peaks counted and the hints given so far are not lost. View types that
+     * were dropped from this pool are skipped.
+     */
+    public void copyCapacitiesTo(@NonNull RecycledViewPool pool) {
+        RecycledViewPoolSizer sizer = of(pool);
+        for (int viewType = 0; viewType < mCapacities.length; viewType++) {
+            if (mCapacities[viewType] > 0 && !mTrimmed[viewType]) {
+                sizer.setCapacityHint(viewType, mCapacities[viewType]);
+            }
+        }
+    }
+
+    /** @return The number of views of the given type the pool can currently hold. */
+    public int getCapacity(int viewType) {
+        return viewType < mCapacities.length && mCapacities[viewType] > 0
+                ? mCapacities[viewType]
+                : DEFAULT_CAPACITY;
+    }
+
+    /** Call when a view holder had to be created because the pool had none to reuse. */
+    public void onViewHolderCreated() {
+        mMissCount++;
+    }
+
+    /** Call when a view holder taken from the pool is bound again. */
+    public void onViewHolderReused() {
+        mHitCount++;
+    }
+
+    /** @return The number of view holders served by the pool. */
+    public int getHitCount() {
+        return mHitCount;
+    }
+
+    /** @return The number of view holders that had to be created. */
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /** @return The percentage of view holders served by the pool, or 0 if none were needed. */
+    public float getHitRate() {
+        int total = mHitCount + mMissCount;
+        return total == 0 ? 0f : mHitCount * 100f / total;
+    }
+
+    private void ensureCapacity(int viewType, int capacity) {
+        if (capacity > getCapacity(viewType)) {
+            mCapacities[viewType] = capacity;
+            setMaxRecycledViews(viewType, capacity);
+        }
+    }
+
+    private void setMaxRecycledViews(int viewType, int max) {
+        RecycledViewPool pool = mPool.get();
+        if (pool != null) {
+            pool.setMaxRecycledViews(viewType, max);
+        }
+    }
+
+    private void ensureViewType(int viewType) {
+        if (viewType >= mAttached.length) {
+            int length = Math.max(viewType + 1, mAttached.length * 2);
+            mAttached = Arrays.copyOf(mAttached, length);
+            mCapacities = Arrays.copyOf(mCapacities, length);
+            mTrimmed = Arrays.copyOf(mTrimmed, length);
+        }
+    }
+}
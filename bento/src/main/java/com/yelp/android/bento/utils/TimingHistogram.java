@@ -0,0 +1,113 @@
+package com.yelp.android.bento.utils;
+
+/**
+ * A fixed size histogram of durations in nanoseconds. Recording a duration is a few arithmetic
+ * operations on preallocated arrays, so it can be done for every bind without allocating.
+ *
+ * <p>Durations are counted in buckets whose width grows with the duration: each power of two is
+ * split into {@link #SUB_BUCKETS} buckets, so percentiles are accurate to within about 12%. The
+ * minimum, maximum and average are exact.
+ *
+ * <p>Not thread safe.
+ */
+public final class TimingHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Durations up to {@link #SUB_BUCKETS} nanoseconds get a bucket each. */
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] mCounts = new long[BUCKETS];
+    private long mCount;
+    private long mSum;
+    private long mMin = Long.MAX_VALUE;
+    private long mMax;
+
+    /** Adds a duration to the histogram. Negative durations are counted as 0. */
+    public void record(long durationNanos) {
+        long duration = Math.max(durationNanos, 0);
+        mCounts[bucketOf(duration)]++;
+        mCount++;
+        mSum += duration;
+        mMin = Math.min(mMin, duration);
+        mMax = Math.max(mMax, duration);
+    }
+
+    /** @return The number of recorded durations. */
+    public long getCount() {
+        return mCount;
+    }
+
+    /** @return The shortest recorded duration, or 0 if none was recorded. */
+    public long getMin() {
+        return mCount == 0 ? 0 : mMin;
+    }
+
+    /** @return The longest recorded duration. */
+    public long getMax() {
+        return mMax;
+    }
+
+    /** @return The sum of the recorded durations. */
+    public long getTotal() {
+        return mSum;
+    }
+
+    /** @return The average recorded duration, or 0 if none was recorded. */
+    public long getAverage() {
+        return mCount == 0 ? 0 : mSum / mCount;
+    }
+
+    /**
+     * @param percentile A percentile between 0 and 100, e.g. 95.
+     * @return A duration that the given percentage of the recorded durations do not exceed, or 0
+     *     if none was recorded. Never more than {@link #getMax()}.
+     */
+    public long getPercentile(double percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(mCount * Math.min(Math.max(percentile, 0), 100) / 100);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += mCounts[bucket];
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(upperBoundOf(bucket), mMax);
+            }
+        }
+        return mMax;
+    }
+
+    /** Forgets all the recorded durations. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            mCounts[i] = 0;
+        }
+        mCount = 0;
+        mSum = 0;
+        mMin = Long.MAX_VALUE;
+        mMax = 0;
+    }
+
+    private static int bucketOf(long duration) {
+        if (duration < SUB_BUCKETS) {
+            return (int) duration;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(duration) - SUB_BUCKET_BITS;
+        int subBucket = (int) (duration >>> magnitude) - SUB_BUCKETS;
+        return (magnitude + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /** @return The largest duration counted in the bucket. */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        long upperBound = ((subBucket + 1) << magnitude) - 1;
+        // The last buckets reach past Long.MAX_VALUE.
+        return upperBound < 0 ? Long.MAX_VALUE : upperBound;
+    }
+}
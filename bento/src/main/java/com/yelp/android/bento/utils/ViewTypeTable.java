@@ -0,0 +1,130 @@
+package com.yelp.android.bento.utils;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import java.util.Arrays;
+
+/**
+ * A flat table of the view type of every adapter position, kept in sync with the adapter through
+ * the same range notifications. Looking up the view type of a position is then an array read
+ * instead of a search through every level of nested component groups.
+ *
+ * <p>Positions start out unresolved and are resolved lazily by the adapter with {@link #set(int,
+ * int)}. Insertions and removals shift the resolved entries along with their items, while changes
+ * mark the changed positions as unresolved again, since the view type may have changed with the
+ * data.
+ *
+ * <p>Notifications that don't fit the table are clamped to it rather than thrown on. The owner is
+ * expected to compare {@link #size()} with the actual number of items and {@link #reset(int)} the
+ * table when they differ.
+ */
+public final class ViewTypeTable implements ListUpdateCallback {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] mViewTypes = new int[INITIAL_CAPACITY];
+
+    /** Whether the entry at the same index of {@link #mViewTypes} holds a view type. */
+    private boolean[] mResolved = new boolean[INITIAL_CAPACITY];
+
+    private int mSize;
+
+    /** @return The number of positions in the table. */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @param position The adapter position.
+     * @return True if the view type at the position is known and can be read with {@link
+     *     #get(int)}.
+     */
+    public boolean isResolved(int position) {
+        return position >= 0 && position < mSize && mResolved[position];
+    }
+
+    /**
+     * @param position An adapter position that {@link #isResolved(int)}.
+     * @return The view type of the item at the position.
+     */
+    public int get(int position) {
+        return mViewTypes[position];
+    }
+
+    /**
+     * Records the view type of the item at a position. Does nothing if the position is outside of
+     * the table.
+     */
+    public void set(int position, int viewType) {
+        if (position >= 0 && position < mSize) {
+            mViewTypes[position] = viewType;
+            mResolved[position] = true;
+        }
+    }
+
+    /**
+     * Forgets all view types and resizes the table, e.g. after the whole data set changed.
+     *
+     * @param size The new number of positions.
+     */
+    public void reset(int size) {
+        ensureCapacity(size);
+        mSize = size;
+        Arrays.fill(mResolved, 0, size, false);
+    }
+
+    @Override
+    public void onInserted(int position, int count) {
+        position = Math.min(position, mSize);
+        ensureCapacity(mSize + count);
+        System.arraycopy(mViewTypes, position, mViewTypes, position + count, mSize - position);
+        System.arraycopy(mResolved, position, mResolved, position + count, mSize - position);
+        Arrays.fill(mResolved, position, position + count, false);
+        mSize += count;
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        position = Math.min(position, mSize);
+        count = Math.min(count, mSize - position);
+        int tail = mSize - position - count;
+        System.arraycopy(mViewTypes, position + count, mViewTypes, position, tail);
+        System.arraycopy(mResolved, position + count, mResolved, position, tail);
+        mSize -= count;
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        if (fromPosition >= mSize || toPosition >= mSize) {
+            return;
+        }
+        int viewType = mViewTypes[fromPosition];
+        boolean resolved = mResolved[fromPosition];
+        if (fromPosition < toPosition) {
+            int count = toPosition - fromPosition;
+            System.arraycopy(mViewTypes, fromPosition + 1, mViewTypes, fromPosition, count);
+            System.arraycopy(mResolved, fromPosition + 1, mResolved, fromPosition, count);
+        } else {
+            int count = fromPosition - toPosition;
+            System.arraycopy(mViewTypes, toPosition, mViewTypes, toPosition + 1, count);
+            System.arraycopy(mResolved, toPosition, mResolved, toPosition + 1, count);
+        }
+        mViewTypes[toPosition] = viewType;
+        mResolved[toPosition] = resolved;
+    }
+
+    @Override
+    public void onChanged(int position, int count, @Nullable Object payload) {
+        if (position < mSize) {
+            Arrays.fill(mResolved, position, Math.min(position + count, mSize), false);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mViewTypes.length) {
+            int newCapacity = Math.max(capacity, mViewTypes.length * 2);
+            mViewTypes = Arrays.copyOf(mViewTypes, newCapacity);
+            mResolved = Arrays.copyOf(mResolved, newCapacity);
+        }
+    }
+}
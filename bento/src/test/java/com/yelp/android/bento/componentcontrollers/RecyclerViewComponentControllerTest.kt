@@ -0,0 +1,187 @@
+package com.yelp.android.bento.componentcontrollers
+
+import android.content.Context
+import android.os.Looper
+import android.view.View
+import android.view.ViewGroup
+import android.widget.TextView
+import androidx.recyclerview.widget.RecyclerView
+import androidx.test.core.app.ApplicationProvider
+import com.yelp.android.bento.components.SimpleComponent
+import com.yelp.android.bento.core.AsyncInflationBridge
+import com.yelp.android.bento.core.Component
+import com.yelp.android.bento.core.ComponentViewHolder
+import com.yelp.android.bento.core.TestComponentViewHolder
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.kotlin.any
+import org.mockito.kotlin.doAnswer
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
+import org.mockito.kotlin.verify
+import org.mockito.kotlin.whenever
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import java.time.Duration
+
+@RunWith(RobolectricTestRunner::class)
+class RecyclerViewComponentControllerTest {
+
+    private lateinit var controller: RecyclerViewComponentController
+
+    // The additions the bridge would run once the views of their component are inflated.
+    private val pendingAdditions = mutableListOf<() -> Unit>()
+
+    private val bridge: AsyncInflationBridge = mock()
+
+    @Before
+    fun setup() {
+        doAnswer {
+            pendingAdditions.add(it.getArgument(1))
+            null
+        }.whenever(bridge).asyncInflateViewsForComponent(any(), any())
+        val context: Context = ApplicationProvider.getApplicationContext()
+        controller = RecyclerViewComponentController(RecyclerView(context), true)
+        controller.mAsyncInflationBridge = bridge
+    }
+
+    @Test
+    fun setComponents_AfterAsyncAdd_DropsPendingComponent() {
+        val pending = createComponent()
+        val component = createComponent()
+
+        controller.addComponent(pending)
+        controller.setComponents(listOf(component))
+        finishInflations()
+
+        assertEquals(1, controller.size)
+        assertSame(component, controller[0])
+        verify(bridge).trackComponentRemoval(pending)
+    }
+
+    @Test
+    fun setComponents_AfterAsyncAdd_KeepsOrderOfPendingComponent() {
+        val pending = createComponent()
+        val first = createComponent()
+
+        controller.addComponent(pending)
+        controller.setComponents(listOf(first, pending))
+        finishInflations()
+
+        assertEquals(2, controller.size)
+        assertSame(first, controller[0])
+        assertSame(pending, controller[1])
+        verify(bridge, never()).trackComponentRemoval(pending)
+    }
+
+    @Test
+    fun remove_PendingComponent_IsNotAddedLater() {
+        val pending = createComponent()
+
+        controller.addComponent(pending)
+        controller.remove(pending)
+        finishInflations()
+
+        assertEquals(0, controller.size)
+    }
+
+    @Test
+    fun addComponent_Async_AddsOnceInflated() {
+        val component = createComponent()
+
+        controller.addComponent(component)
+        assertEquals(0, controller.size)
+        finishInflations()
+
+        assertEquals(1, controller.size)
+        assertSame(component, controller[0])
+    }
+
+    @Test
+    fun coalescedUpdates_LayoutBeforeNextFrame_LaysOutKnownItems() {
+        val recyclerView = RecyclerView(ApplicationProvider.getApplicationContext())
+        recyclerView.itemAnimator = null
+        val coalescing = RecyclerViewComponentController(recyclerView, false)
+        coalescing.addAll(List(3) { createComponent() })
+        layout(recyclerView)
+        coalescing.setCoalesceUpdates(true)
+
+        coalescing.remove(2)
+        coalescing.remove(0)
+        coalescing.addComponent(createComponent())
+        layout(recyclerView)
+
+        assertEquals(3, recyclerView.adapter!!.itemCount)
+        assertEquals(3, recyclerView.childCount)
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(1))
+        layout(recyclerView)
+
+        assertEquals(2, recyclerView.adapter!!.itemCount)
+        assertEquals(2, recyclerView.childCount)
+    }
+
+    @Test
+    fun coalescedUpdates_LayoutBeforeNextFrame_ReplacesViewOfChangedType() {
+        val recyclerView = RecyclerView(ApplicationProvider.getApplicationContext())
+        recyclerView.itemAnimator = null
+        val coalescing = RecyclerViewComponentController(recyclerView, false)
+        val component = SwitchingComponent()
+        coalescing.addComponent(component)
+        layout(recyclerView)
+        coalescing.setCoalesceUpdates(true)
+
+        component.switchTo(OtherViewHolder::class.java)
+        layout(recyclerView)
+
+        assertEquals(OtherViewHolder.TEXT, (recyclerView.getChildAt(0) as TextView).text)
+    }
+
+    private fun layout(recyclerView: RecyclerView) {
+        recyclerView.requestLayout()
+        recyclerView.measure(
+                View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY))
+        recyclerView.layout(0, 0, 500, 1000)
+    }
+
+    private fun finishInflations() {
+        pendingAdditions.forEach { it() }
+        pendingAdditions.clear()
+    }
+
+    private fun createComponent(): Component =
+            SimpleComponent<Nothing?>(TestComponentViewHolder::class.java)
+
+    /** A component with one item whose view holder can change. */
+    private class SwitchingComponent : Component() {
+
+        private var holderType: Class<out ComponentViewHolder<*, *>> =
+                TestComponentViewHolder::class.java
+
+        fun switchTo(holderType: Class<out ComponentViewHolder<*, *>>) {
+            this.holderType = holderType
+            notifyItemRangeChanged(0, 1)
+        }
+
+        override fun getPresenter(position: Int): Any? = null
+        override fun getItem(position: Int): Any? = null
+        override fun getCount(): Int = 1
+        override fun getHolderType(position: Int) = holderType
+    }
+
+    class OtherViewHolder : ComponentViewHolder<Nothing?, Nothing?>() {
+
+        override fun inflate(parent: ViewGroup): View =
+                TextView(parent.context).apply { text = TEXT }
+
+        override fun bind(presenter: Nothing?, element: Nothing?) = Unit
+
+        companion object {
+            const val TEXT = "Other"
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.yelp.android.bento.componentcontrollers
+
+import android.content.Context
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleOwner
+import androidx.lifecycle.LifecycleRegistry
+import androidx.recyclerview.widget.RecyclerView
+import androidx.test.core.app.ApplicationProvider
+import com.yelp.android.bento.utils.RecycledViewPoolSizer
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class SharedRecycledViewPoolsTest {
+
+    private lateinit var context: Context
+    private lateinit var owner: TestLifecycleOwner
+
+    @Before
+    fun setup() {
+        context = ApplicationProvider.getApplicationContext()
+        owner = TestLifecycleOwner()
+    }
+
+    @Test
+    fun attach_SameOwner_SharesPool() {
+        val first = RecyclerView(context)
+        val second = RecyclerView(context)
+        SharedRecycledViewPools.attach(first, owner)
+        SharedRecycledViewPools.attach(second, owner)
+
+        assertSame(first.recycledViewPool, second.recycledViewPool)
+        assertSame(SharedRecycledViewPools.poolFor(owner), first.recycledViewPool)
+    }
+
+    @Test
+    fun attach_DifferentOwners_UseDifferentPools() {
+        val first = RecyclerView(context)
+        val second = RecyclerView(context)
+        SharedRecycledViewPools.attach(first, owner)
+        SharedRecycledViewPools.attach(second, TestLifecycleOwner())
+
+        assertNotSame(first.recycledViewPool, second.recycledViewPool)
+    }
+
+    @Test
+    fun attach_CarriesCapacitiesOver() {
+        val recyclerView = RecyclerView(context)
+        RecycledViewPoolSizer.of(recyclerView.recycledViewPool).setCapacityHint(3, 12)
+
+        SharedRecycledViewPools.attach(recyclerView, owner)
+
+        assertEquals(12, RecycledViewPoolSizer.of(recyclerView.recycledViewPool).getCapacity(3))
+    }
+
+    @Test
+    fun ownerDestroyed_DropsPool() {
+        val pool = SharedRecycledViewPools.poolFor(owner)
+        owner.registry.currentState = Lifecycle.State.DESTROYED
+
+        val recyclerView = RecyclerView(context)
+        val ownPool = recyclerView.recycledViewPool
+        SharedRecycledViewPools.attach(recyclerView, owner)
+
+        assertSame(ownPool, recyclerView.recycledViewPool)
+        assertNotSame(pool, SharedRecycledViewPools.poolFor(owner))
+    }
+
+    class TestLifecycleOwner : LifecycleOwner {
+        val registry = LifecycleRegistry(this).apply { currentState = Lifecycle.State.RESUMED }
+
+        override val lifecycle: Lifecycle
+            get() = registry
+    }
+}
@@ -1,12 +1,21 @@
 package com.yelp.android.bento.components
 
+import android.view.View
+import android.view.ViewGroup
+import androidx.recyclerview.widget.DiffUtil
 import androidx.recyclerview.widget.GridLayoutManager.SpanSizeLookup
+import com.yelp.android.bento.core.Component.ComponentDataObserver
+import com.yelp.android.bento.core.ComponentViewHolder
+import org.mockito.kotlin.mock
 import org.mockito.kotlin.never
 import org.mockito.kotlin.spy
 import org.mockito.kotlin.verify
+import org.mockito.kotlin.verifyNoInteractions
+import org.mockito.kotlin.verifyNoMoreInteractions
 import com.yelp.android.bento.core.TestComponentViewHolder
 import org.junit.Assert.assertEquals
 import org.junit.Test
+import java.util.concurrent.Executor
 
 class ListComponentTest {
 
@@ -222,6 +231,69 @@ class ListComponentTest {
         verify(listSpy).notifyItemRangeInserted(5, 3)
     }
 
+    @Test
+    fun settingDataWithDiffCallbackAndDividers_NotifiesOnlyTheDifference() {
+        val stringList = diffingListComponent(Executor { it.run() })
+        stringList.setData(listOf("a", "b", "c"))
+        val observer = mock<ComponentDataObserver>()
+        stringList.registerComponentDataObserver(observer)
+
+        stringList.setData(listOf("a", "c"))
+
+        // Removing b also removes the divider above it.
+        verify(observer).onItemRangeRemoved(1, 2)
+        verifyNoMoreInteractions(observer)
+        assertEquals(3, stringList.count)
+        assertEquals("c", stringList.getItem(2))
+    }
+
+    @Test
+    fun settingDataWithDiffCallbackTwiceBeforeDiffing_OnlyAppliesTheLatestData() {
+        val pendingDiffs = mutableListOf<Runnable>()
+        val stringList = diffingListComponent(Executor { pendingDiffs.add(it) })
+        val observer = mock<ComponentDataObserver>()
+        stringList.registerComponentDataObserver(observer)
+
+        stringList.setData(listOf("a", "b"))
+        stringList.setData(listOf("c"))
+        verifyNoInteractions(observer)
+        assertEquals(0, stringList.count)
+
+        pendingDiffs.forEach { it.run() }
+        verify(observer).onItemRangeInserted(0, 1)
+        verifyNoMoreInteractions(observer)
+        assertEquals("c", stringList.getItem(0))
+    }
+
+    @Test
+    fun appendingDataWhileDiffing_AppendsToTheLatestData() {
+        val pendingDiffs = mutableListOf<Runnable>()
+        val stringList = diffingListComponent(Executor { pendingDiffs.add(it) })
+
+        stringList.setData(listOf("a", "b"))
+        stringList.appendData(listOf("c"))
+        pendingDiffs.forEach { it.run() }
+
+        assertEquals(5, stringList.count)
+        assertEquals("a", stringList.getItem(0))
+        assertEquals("c", stringList.getItem(4))
+    }
+
+    private fun diffingListComponent(diffExecutor: Executor): ListComponent<Nothing?, String> {
+        return ListComponent(null, StringViewHolder::class.java).apply {
+            setMainThreadExecutor(Executor { it.run() })
+            setItemDiffCallback(
+                    object : DiffUtil.ItemCallback<String>() {
+                        override fun areItemsTheSame(oldItem: String, newItem: String) =
+                                oldItem == newItem
+
+                        override fun areContentsTheSame(oldItem: String, newItem: String) =
+                                oldItem == newItem
+                    },
+                    diffExecutor)
+        }
+    }
+
     /**
      * Adds fake items to the list component.
      *
@@ -232,4 +304,11 @@ class ListComponentTest {
         listComponent = ListComponent(null, TestComponentViewHolder::class.java, lanes)
         listComponent.setData((1..count).map { null })
     }
+
+    class StringViewHolder : ComponentViewHolder<Nothing?, String>() {
+
+        override fun inflate(parent: ViewGroup): View = throw UnsupportedOperationException()
+
+        override fun bind(presenter: Nothing?, element: String) = Unit
+    }
 }
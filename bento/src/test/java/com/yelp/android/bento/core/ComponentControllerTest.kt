@@ -0,0 +1,144 @@
+package com.yelp.android.bento.core
+
+import com.yelp.android.bento.utils.AccordionList.Range
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Test
+
+class ComponentControllerTest {
+
+    private val controller = ListComponentController()
+
+    @Test
+    fun setComponents_RemovesUnmatchedAndAddsNew() {
+        val a = KeyedComponent("a")
+        val b = KeyedComponent("b")
+        val c = KeyedComponent("c")
+        controller.addComponent(a).addComponent(b)
+
+        controller.setComponents(listOf(b, c))
+
+        assertEquals(listOf(b, c), controller.components)
+    }
+
+    @Test
+    fun setComponents_ReplacesMatchedComponentInPlace() {
+        val old = KeyedComponent("a")
+        val new = KeyedComponent("a")
+        val b = KeyedComponent("b")
+        controller.addComponent(old).addComponent(b)
+
+        controller.setComponents(listOf(new, b))
+
+        assertEquals(listOf(new, b), controller.components)
+        assertEquals(listOf("replace 0"), controller.changes.filter { it.startsWith("replace") })
+    }
+
+    @Test
+    fun setComponents_MovesMatchedComponents() {
+        val a = KeyedComponent("a")
+        val b = KeyedComponent(null)
+        val c = KeyedComponent("c")
+        controller.addComponent(a).addComponent(b).addComponent(c)
+
+        controller.setComponents(listOf(c, KeyedComponent("a"), b))
+
+        assertEquals(3, controller.size)
+        assertSame(c, controller[0])
+        assertEquals("a", controller[1].componentKey)
+        assertSame(b, controller[2])
+    }
+
+    @Test
+    fun setComponents_WrapsChangesInBatch() {
+        controller.addComponent(KeyedComponent("a"))
+
+        controller.setComponents(listOf(KeyedComponent("b")))
+
+        assertEquals("begin", controller.changes.first())
+        assertEquals("commit", controller.changes.last())
+    }
+
+    private class KeyedComponent(private val key: Any?) : Component() {
+        override fun getComponentKey(): Any? = key
+        override fun getPresenter(position: Int): Any? = null
+        override fun getItem(position: Int): Any? = null
+        override fun getCount(): Int = 1
+        override fun getHolderType(position: Int): Class<out ComponentViewHolder<*, *>> =
+                TestComponentViewHolder::class.java
+    }
+
+    /** Implements only the abstract members of [ComponentController], on top of a list. */
+    private class ListComponentController : ComponentController {
+
+        val components = mutableListOf<Component>()
+        val changes = mutableListOf<String>()
+
+        override val span: Int get() = components.size
+        override val size: Int get() = components.size
+        override var isScrollable: Boolean = true
+
+        override fun get(index: Int): Component = components[index]
+
+        override fun contains(component: Component): Boolean = component in components
+
+        override fun indexOf(component: Component): Int = components.indexOf(component)
+
+        override fun rangeOf(component: Component): Range? = null
+
+        override fun addComponent(component: Component) = addComponent(size, component)
+
+        override fun addComponent(componentGroup: ComponentGroup) =
+                addComponent(size, componentGroup)
+
+        override fun addComponent(index: Int, component: Component): ComponentController {
+            components.add(index, component)
+            changes.add("add $index")
+            return this
+        }
+
+        override fun addComponent(index: Int, componentGroup: ComponentGroup) =
+                addComponent(index, componentGroup as Component)
+
+        override fun addAll(components: Collection<Component>): ComponentController {
+            components.forEach { addComponent(it) }
+            return this
+        }
+
+        override fun replaceComponent(index: Int, component: Component): ComponentController {
+            components[index] = component
+            changes.add("replace $index")
+            return this
+        }
+
+        override fun replaceComponent(index: Int, componentGroup: ComponentGroup) =
+                replaceComponent(index, componentGroup as Component)
+
+        override fun remove(index: Int): Component {
+            changes.add("remove $index")
+            return components.removeAt(index)
+        }
+
+        override fun remove(component: Component): Boolean {
+            val index = indexOf(component)
+            if (index != -1) {
+                remove(index)
+            }
+            return index != -1
+        }
+
+        override fun clear() = components.clear()
+
+        override fun beginBatch() {
+            changes.add("begin")
+        }
+
+        override fun commitBatch() {
+            changes.add("commit")
+        }
+
+        override fun scrollToComponent(component: Component, smoothScroll: Boolean) = Unit
+
+        override fun scrollToComponentWithOffset(component: Component, offset: Int) = Unit
+    }
+}
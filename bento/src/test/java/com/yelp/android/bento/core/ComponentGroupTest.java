@@ -9,14 +9,24 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import androidx.annotation.Nullable;
 import com.yelp.android.bento.componentcontrollers.SimpleComponentViewHolder;
 import com.yelp.android.bento.components.ListComponent;
 import com.yelp.android.bento.components.SimpleComponent;
+import com.yelp.android.bento.utils.AccordionList;
+import com.yelp.android.bento.utils.AccordionList.RangedValue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
@@ -43,6 +53,27 @@ public class ComponentGroupTest {
         assertEquals(-1, mComponentGroup.indexOf(mockComponent));
     }
 
+    @Test
+    public void removedComponent_IsNotKeptAliveByLookups() {
+        Component component = new SimpleComponent<>(SimpleComponentViewHolder.class);
+        mComponentGroup.addComponent(component);
+        mComponentGroup.findComponentWithIndex(0);
+        mComponentGroup.getSpanSizeLookup().getSpanSize(0);
+        mComponentGroup.getItemId(0);
+        mComponentGroup.getHolderType(0);
+        mComponentGroup.getPresenter(0);
+        mComponentGroup.getItem(0);
+        mComponentGroup.remove(component);
+        WeakReference<Component> reference = new WeakReference<>(component);
+
+        component = null;
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+        }
+
+        assertNull(reference.get());
+    }
+
     @Test
     public void componentGroupWithGap_MapsItemsPropery() {
         Component simpleComponent =
@@ -191,6 +222,25 @@ public class ComponentGroupTest {
         assertEquals(0, mComponentGroup.indexOf(subsequentComponent));
     }
 
+    @Test
+    public void addAndRemoveAtTop_MaintainsValidIndices() {
+        List<Component> components = createMockComponents(50);
+        mComponentGroup.addAll(components);
+        Component first = createMockComponents(1).get(0);
+
+        mComponentGroup.addComponent(0, first);
+        mComponentGroup.remove(components.get(0));
+        mComponentGroup.remove(1);
+
+        assertEquals(49, mComponentGroup.getSize());
+        assertEquals(0, mComponentGroup.indexOf(first));
+        assertEquals(-1, mComponentGroup.indexOf(components.get(1)));
+        for (int i = 2; i < components.size(); i++) {
+            assertEquals(i - 1, mComponentGroup.indexOf(components.get(i)));
+            assertEquals(components.get(i), mComponentGroup.get(i - 1));
+        }
+    }
+
     @Test
     public void test_NotifyRangeUpdated_ComponentRemoved_CallsNotifyItemRangeRemoved() {
         ListComponent<String, String> listComponent = new ListComponent<>(null, null);
@@ -276,6 +326,48 @@ public class ComponentGroupTest {
         verify(spyGroup, times(0)).notifyItemRangeInserted(0, 4);
     }
 
+    @Test
+    public void test_AddAll_InTheMiddle_CallsNotifyItemRangeInsertedOnce() {
+        ComponentGroup group = new ComponentGroup();
+        List<Component> components = createMockComponents(3);
+        group.addAll(components);
+        ComponentGroup spyGroup = spy(group);
+
+        List<Component> inserted = createMockComponents(4);
+        spyGroup.addAll(1, inserted);
+
+        verify(spyGroup, times(1)).notifyItemRangeInserted(1, 4);
+        assertEquals(7, spyGroup.getSize());
+        assertEquals(0, spyGroup.indexOf(components.get(0)));
+        assertEquals(3, spyGroup.indexOf(inserted.get(2)));
+        assertEquals(6, spyGroup.indexOf(components.get(2)));
+        assertEquals(inserted.get(3), spyGroup.componentAt(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_AddAll_Duplicate_Throws() {
+        Component component = createMockComponents(1).get(0);
+        mComponentGroup.addAll(Arrays.asList(component, component));
+    }
+
+    @Test
+    public void test_Clear_NotifiesEveryComponentRemoved() {
+        List<Component> components = createMockComponents(5);
+        mComponentGroup.addAll(components);
+        ComponentGroup.ComponentGroupDataObserver observer =
+                mock(ComponentGroup.ComponentGroupDataObserver.class);
+        mComponentGroup.registerComponentGroupObserver(observer);
+
+        mComponentGroup.clear();
+
+        assertEquals(0, mComponentGroup.getSize());
+        for (Component component : components) {
+            verify(observer).onComponentRemoved(component);
+            assertFalse(mComponentGroup.contains(component));
+        }
+        verify(observer).onChanged();
+    }
+
     @Test
     public void test_FindFirstComponentOffset() {
         ComponentGroup group = new ComponentGroup();
@@ -336,6 +428,88 @@ public class ComponentGroupTest {
         assertEquals(14, offset);
     }
 
+    @Test
+    public void test_FindComponentWithIndex_NestedFillsCursor() {
+        ComponentGroup group = new ComponentGroup();
+        group.addAll(createMockComponents(3));
+
+        ComponentGroup nestedGroup = new ComponentGroup();
+        List<Component> nestedComponents = createMockComponents(4);
+        nestedGroup.addAll(nestedComponents);
+        group.addComponent(nestedGroup);
+
+        AccordionList.Cursor<Component> cursor = new AccordionList.Cursor<>();
+        group.findComponentWithIndex(5, cursor);
+        assertEquals(nestedComponents.get(2), cursor.mValue);
+        assertEquals(2, cursor.mEntryIndex);
+        assertEquals(5, cursor.mLower);
+        assertEquals(6, cursor.mUpper);
+        assertEquals(0, cursor.mOffset);
+
+        RangedValue<Component> rangedValue = group.findRangedComponentWithIndex(5);
+        assertEquals(nestedComponents.get(2), rangedValue.mValue);
+        assertEquals(5, rangedValue.mRange.mLower);
+        assertEquals(6, rangedValue.mRange.mUpper);
+        assertEquals(nestedComponents.get(2), group.findComponentWithIndex(5));
+    }
+
+    @Test
+    public void test_Snapshot_NestedGroupsUnaffectedByLaterChanges() {
+        ComponentGroup group = new ComponentGroup();
+        List<Component> components = createMockComponents(2);
+        group.addAll(components);
+        ComponentGroup nestedGroup = new ComponentGroup();
+        List<Component> nestedComponents = createMockComponents(3);
+        nestedGroup.addAll(nestedComponents);
+        group.addComponent(nestedGroup);
+
+        ComponentGroup.Snapshot snapshot = group.snapshot();
+        assertTrue(snapshot == group.snapshot());
+
+        nestedGroup.remove(0);
+        group.remove(0);
+
+        assertFalse(snapshot == group.snapshot());
+        assertEquals(3, snapshot.getSize());
+        assertEquals(5, snapshot.getCount());
+        assertEquals(nestedGroup, snapshot.componentAt(2));
+        AccordionList.Cursor<Component> cursor =
+                snapshot.findComponentWithIndex(4, new AccordionList.Cursor<Component>());
+        assertEquals(nestedComponents.get(2), cursor.mValue);
+        assertEquals(4, cursor.mLower);
+        assertEquals(5, cursor.mUpper);
+
+        ComponentGroup.Snapshot current = group.snapshot();
+        assertEquals(3, current.getCount());
+        assertEquals(
+                nestedComponents.get(2),
+                current.findComponentWithIndex(2, new AccordionList.Cursor<Component>()).mValue);
+    }
+
+    @Test
+    public void test_FindDeeplyNestedComponentOffset_FollowsParents() {
+        ComponentGroup root = new ComponentGroup();
+        root.addAll(createMockComponents(3));
+        ComponentGroup middle = new ComponentGroup();
+        middle.addAll(createMockComponents(2));
+        ComponentGroup leaf = new ComponentGroup();
+        List<Component> leafComponents = createMockComponents(4);
+        leaf.addAll(leafComponents);
+        middle.addComponent(leaf);
+        root.addComponent(1, middle);
+
+        assertEquals(Arrays.asList(middle), leaf.getParentGroups());
+        assertEquals(1 + 2 + 3, root.findComponentOffset(leafComponents.get(3)));
+        assertEquals(1, root.indexOfChildContaining(leafComponents.get(3)));
+        assertEquals(1, root.indexOfChildContaining(middle));
+        assertEquals(-1, leaf.findComponentOffset(middle));
+
+        root.remove(middle);
+        assertEquals(-1, root.findComponentOffset(leafComponents.get(3)));
+        assertEquals(-1, root.indexOfChildContaining(leafComponents.get(3)));
+        assertTrue(middle.getParentGroups().isEmpty());
+    }
+
     @Test
     public void test_GetNumberColumns_ReturnsCorrectAnswer() {
         List<Component> components = createMockComponents(3);
@@ -348,6 +522,446 @@ public class ComponentGroupTest {
         assertEquals(12, listComponent.getNumberLanes());
     }
 
+    @Test
+    public void test_GetNumberLanes_CachedUntilChildNotifies() {
+        ComponentGroup group = new ComponentGroup();
+        ListComponent<String, String> listComponent = new ListComponent<>(null, null, 2);
+        listComponent.toggleDivider(false);
+        Component component = createMockComponents(1).get(0);
+        when(component.getNumberLanes()).thenReturn(3);
+        group.addComponent(listComponent);
+        group.addComponent(component);
+
+        assertEquals(6, group.getNumberLanes());
+        assertEquals(6, group.getNumberLanes());
+        verify(component, times(1)).getNumberLanes();
+
+        when(component.getNumberLanes()).thenReturn(5);
+        assertEquals(6, group.getNumberLanes());
+        listComponent.setData(Arrays.asList("a", "b"));
+        assertEquals(10, group.getNumberLanes());
+
+        group.remove(listComponent);
+        assertEquals(5, group.getNumberLanes());
+    }
+
+    @Test
+    public void test_Batch_AddingComponentsOneByOne_NotifiesOneInsertedRange() {
+        Component.ComponentDataObserver dataObserver =
+                mock(Component.ComponentDataObserver.class);
+        ComponentGroup.ComponentGroupDataObserver groupObserver =
+                mock(ComponentGroup.ComponentGroupDataObserver.class);
+        mComponentGroup.registerComponentDataObserver(dataObserver);
+        mComponentGroup.registerComponentGroupObserver(groupObserver);
+
+        mComponentGroup.beginBatch();
+        for (Component component : createMockComponents(50)) {
+            mComponentGroup.addComponent(component);
+        }
+        mComponentGroup.beginBatch();
+        mComponentGroup.remove(0);
+        mComponentGroup.commitBatch();
+        verifyNoInteractions(dataObserver);
+        verify(groupObserver, times(0)).onChanged();
+        assertTrue(mComponentGroup.isInBatch());
+
+        mComponentGroup.commitBatch();
+        assertFalse(mComponentGroup.isInBatch());
+        verify(dataObserver).onItemRangeInserted(0, 50);
+        verify(dataObserver).onItemRangeRemoved(0, 1);
+        verify(groupObserver, times(1)).onChanged();
+        verifyNoMoreInteractions(dataObserver);
+    }
+
+    @Test
+    public void test_Batch_Clear_NotifiesDataChangedOnly() {
+        mComponentGroup.addAll(createMockComponents(3));
+        Component.ComponentDataObserver dataObserver =
+                mock(Component.ComponentDataObserver.class);
+        mComponentGroup.registerComponentDataObserver(dataObserver);
+
+        mComponentGroup.beginBatch();
+        mComponentGroup.remove(1);
+        mComponentGroup.clear();
+        mComponentGroup.addAll(createMockComponents(2));
+        mComponentGroup.commitBatch();
+
+        verify(dataObserver).onChanged();
+        verifyNoMoreInteractions(dataObserver);
+        assertEquals(2, mComponentGroup.getSize());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_CommitBatch_WithoutBegin_Throws() {
+        mComponentGroup.commitBatch();
+    }
+
+    @Test
+    public void test_SetComponents_OnlyNotifiesTheDifference() {
+        List<Component> components = createMockComponents(5);
+        mComponentGroup.addAll(components);
+        Component.ComponentDataObserver dataObserver =
+                mock(Component.ComponentDataObserver.class);
+        mComponentGroup.registerComponentDataObserver(dataObserver);
+
+        Component added = createMockComponents(1).get(0);
+        List<Component> newComponents =
+                Arrays.asList(
+                        components.get(0),
+                        components.get(3),
+                        components.get(1),
+                        added,
+                        components.get(4));
+        mComponentGroup.setComponents(newComponents);
+
+        assertEquals(newComponents.size(), mComponentGroup.getSize());
+        for (int i = 0; i < newComponents.size(); i++) {
+            assertEquals(newComponents.get(i), mComponentGroup.get(i));
+        }
+        assertFalse(mComponentGroup.contains(components.get(2)));
+        verify(dataObserver).onItemRangeRemoved(2, 1);
+        verify(dataObserver).onItemMoved(1, 2);
+        verify(dataObserver).onItemRangeInserted(3, 1);
+        verifyNoMoreInteractions(dataObserver);
+    }
+
+    @Test
+    public void test_SetComponents_SameKey_ReplacesInPlace() {
+        List<Component> components = createMockComponents(3);
+        when(components.get(1).getComponentKey()).thenReturn("key");
+        mComponentGroup.addAll(components);
+        Component.ComponentDataObserver dataObserver =
+                mock(Component.ComponentDataObserver.class);
+        mComponentGroup.registerComponentDataObserver(dataObserver);
+
+        Component replacement = createMockComponents(1).get(0);
+        when(replacement.getComponentKey()).thenReturn("key");
+        mComponentGroup.setComponents(
+                Arrays.asList(components.get(0), replacement, components.get(2)));
+
+        assertEquals(replacement, mComponentGroup.get(1));
+        assertFalse(mComponentGroup.contains(components.get(1)));
+        verify(dataObserver).onItemRangeChanged(1, 1);
+        verifyNoMoreInteractions(dataObserver);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_SetComponents_DuplicateKeys_Throws() {
+        List<Component> components = createMockComponents(2);
+        when(components.get(0).getComponentKey()).thenReturn("key");
+        when(components.get(1).getComponentKey()).thenReturn("key");
+        mComponentGroup.setComponents(components);
+    }
+
+    @Test
+    public void test_SetComponents_RandomLists_NotificationsDescribeTheChange() {
+        Random random = new Random(42);
+        List<Component> pool = createMockComponents(30);
+        for (int i = 0; i < pool.size(); i++) {
+            when(pool.get(i).getCount()).thenReturn(1 + i % 3);
+        }
+        final List<String> items = new ArrayList<>();
+        mComponentGroup.registerComponentDataObserver(
+                new Component.ComponentDataObserver() {
+                    @Override
+                    public void onChanged() {
+                        throw new AssertionError("Unexpected full change.");
+                    }
+
+                    @Override
+                    public void onItemRangeChanged(int positionStart, int itemCount) {
+                        for (int i = 0; i < itemCount; i++) {
+                            items.set(positionStart + i, "?");
+                        }
+                    }
+
+                    @Override
+                    public void onItemRangeInserted(int positionStart, int itemCount) {
+                        for (int i = 0; i < itemCount; i++) {
+                            items.add(positionStart, "?");
+                        }
+                    }
+
+                    @Override
+                    public void onItemRangeRemoved(int positionStart, int itemCount) {
+                        items.subList(positionStart, positionStart + itemCount).clear();
+                    }
+
+                    @Override
+                    public void onItemMoved(int fromPosition, int toPosition) {
+                        items.add(toPosition, items.remove(fromPosition));
+                    }
+                });
+
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < mComponentGroup.getSpan(); i++) {
+                Component component = mComponentGroup.componentAt(i);
+                items.set(i, pool.indexOf(component) + ":" + mComponentGroup.rangeOf(component));
+            }
+            List<Component> previous = new ArrayList<>();
+            for (int i = 0; i < mComponentGroup.getSize(); i++) {
+                previous.add(mComponentGroup.get(i));
+            }
+            List<Component> next = new ArrayList<>(pool);
+            Collections.shuffle(next, random);
+            next = next.subList(0, random.nextInt(pool.size()));
+
+            mComponentGroup.setComponents(next);
+
+            List<String> expected = new ArrayList<>();
+            for (Component component : next) {
+                int count = component.getCountInternal();
+                for (int i = 0; i < count; i++) {
+                    expected.add("?");
+                }
+            }
+            assertEquals(next.size(), mComponentGroup.getSize());
+            assertEquals(expected.size(), items.size());
+            int position = 0;
+            for (int i = 0; i < next.size(); i++) {
+                Component component = next.get(i);
+                assertEquals(component, mComponentGroup.get(i));
+                int count = component.getCountInternal();
+                for (int j = 0; j < count; j++, position++) {
+                    String item = items.get(position);
+                    if (previous.contains(component)) {
+                        assertTrue(item.startsWith(pool.indexOf(component) + ":"));
+                    } else {
+                        assertEquals("?", item);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_ItemKeys_DataChanged_OnlyNotifiesChangedItems() {
+        List<String> data = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            data.add(i + "=item");
+        }
+        KeyedComponent keyedComponent = new KeyedComponent(data);
+        mComponentGroup.addAll(createMockComponents(2));
+        mComponentGroup.addComponent(keyedComponent);
+        Component.ComponentDataObserver dataObserver =
+                mock(Component.ComponentDataObserver.class);
+        mComponentGroup.registerComponentDataObserver(dataObserver);
+
+        data.set(100, "100=changed");
+        keyedComponent.setData(data);
+        verify(dataObserver).onItemRangeChanged(102, 1);
+
+        data.remove(50);
+        keyedComponent.setData(data);
+        verify(dataObserver).onItemRangeRemoved(52, 1);
+
+        data.add(0, "new=item");
+        keyedComponent.setData(data);
+        verify(dataObserver).onItemRangeInserted(2, 1);
+        verifyNoMoreInteractions(dataObserver);
+        assertEquals(202, mComponentGroup.getSpan());
+    }
+
+    @Test
+    public void test_ItemKeys_WithGap_DiffsGapSeparately() {
+        KeyedComponent keyedComponent = new KeyedComponent(Arrays.asList("a=1", "b=1"));
+        keyedComponent.setStartGap(10);
+        mComponentGroup.addComponent(keyedComponent);
+        Component.ComponentDataObserver dataObserver =
+                mock(Component.ComponentDataObserver.class);
+        mComponentGroup.registerComponentDataObserver(dataObserver);
+
+        keyedComponent.setData(Arrays.asList("a=1", "b=2"));
+        verify(dataObserver).onItemRangeChanged(2, 1);
+
+        keyedComponent.setStartGap(20);
+        keyedComponent.setData(Arrays.asList("a=1", "b=2"));
+        verify(dataObserver).onItemRangeChanged(0, 1);
+        verifyNoMoreInteractions(dataObserver);
+    }
+
+    @Test
+    public void test_ItemKeys_NotificationOutsideOfItems_DoesNotDiffStaleItems() {
+        KeyedComponent keyedComponent = new KeyedComponent(Arrays.asList("a=1", "b=2"));
+        mComponentGroup.addComponent(keyedComponent);
+        Component.ComponentDataObserver dataObserver =
+                mock(Component.ComponentDataObserver.class);
+        mComponentGroup.registerComponentDataObserver(dataObserver);
+
+        // Changes b and notifies the insertion of c at a position past the end of the items.
+        keyedComponent.mData.set(1, "b=3");
+        keyedComponent.mData.add("c=1");
+        keyedComponent.notifyItemRangeInserted(3, 1);
+        verify(dataObserver).onItemRangeInserted(3, 1);
+
+        keyedComponent.setData(Arrays.asList("a=1", "b=3", "c=1"));
+        verify(dataObserver).onItemRangeChanged(0, 3);
+        verifyNoMoreInteractions(dataObserver);
+    }
+
+    @Test
+    public void test_ItemRangeChangedWithPayload_ForwardsPayloadThroughGroups() {
+        KeyedComponent keyedComponent = new KeyedComponent(Arrays.asList("a=1", "b=2"));
+        ComponentGroup nestedGroup = new ComponentGroup();
+        nestedGroup.addComponent(keyedComponent);
+        mComponentGroup.addAll(createMockComponents(2));
+        mComponentGroup.addComponent(nestedGroup);
+        Component.ComponentDataObserver dataObserver =
+                mock(Component.ComponentDataObserver.class);
+        mComponentGroup.registerComponentDataObserver(dataObserver);
+
+        keyedComponent.notifyItemRangeChanged(1, 1, "like");
+        verify(dataObserver).onItemRangeChanged(3, 1, "like");
+
+        mComponentGroup.beginBatch();
+        keyedComponent.notifyItemRangeChanged(0, 1, "like");
+        mComponentGroup.commitBatch();
+        verify(dataObserver).onItemRangeChanged(2, 1, "like");
+        verifyNoMoreInteractions(dataObserver);
+    }
+
+    @Test
+    public void test_ItemKeys_DataChanged_NotifiesChangePayload() {
+        KeyedComponent keyedComponent =
+                new KeyedComponent(Arrays.asList("a=1", "b=2")) {
+                    @Override
+                    public Object getItemChangePayload(Object oldItem, Object newItem) {
+                        return "payload";
+                    }
+                };
+        mComponentGroup.addComponent(keyedComponent);
+        Component.ComponentDataObserver dataObserver =
+                mock(Component.ComponentDataObserver.class);
+        mComponentGroup.registerComponentDataObserver(dataObserver);
+
+        keyedComponent.setData(Arrays.asList("a=1", "b=3"));
+
+        verify(dataObserver).onItemRangeChanged(1, 1, "payload");
+        verifyNoMoreInteractions(dataObserver);
+    }
+
+    @Test
+    public void test_ItemIds_UniqueAcrossComponentsAndGaps() {
+        Component first = new SimpleComponent<>(null, SimpleComponentViewHolder.class);
+        first.setStartGap(10);
+        first.setEndGap(10);
+        mComponentGroup.addComponent(first);
+        mComponentGroup.addComponent(new KeyedComponent(Arrays.asList("a=1", "b=2")));
+        mComponentGroup.addComponent(new SimpleComponent<>(null, SimpleComponentViewHolder.class));
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < mComponentGroup.getSpan(); i++) {
+            assertTrue(ids.add(mComponentGroup.getItemId(i)));
+        }
+        assertEquals(6, ids.size());
+    }
+
+    @Test
+    public void test_ItemIds_StableWhenItemsAndComponentsMove() {
+        KeyedComponent keyedComponent = new KeyedComponent(Arrays.asList("a=1", "b=2"));
+        mComponentGroup.addComponent(keyedComponent);
+        long idOfA = mComponentGroup.getItemId(0);
+
+        keyedComponent.setData(Arrays.asList("b=2", "a=3"));
+        mComponentGroup.addComponent(
+                0, new SimpleComponent<>(null, SimpleComponentViewHolder.class));
+
+        assertEquals(idOfA, mComponentGroup.getItemId(2));
+    }
+
+    @Test
+    public void test_ItemIds_KeptByComponentWithSameKey() {
+        mComponentGroup.addComponent(new KeyedComponent(Arrays.asList("a=1"), "key"));
+        long id = mComponentGroup.getItemId(0);
+
+        mComponentGroup.setComponents(
+                Collections.singletonList(new KeyedComponent(Arrays.asList("a=2"), "key")));
+
+        assertEquals(id, mComponentGroup.getItemId(0));
+    }
+
+    @Test
+    public void test_ItemIds_UniqueForKeysWithSameHashCode() {
+        // "Aa" and "BB" have the same hash code.
+        mComponentGroup.addComponent(new KeyedComponent(Arrays.asList("Aa=1", "BB=2"), "Aa"));
+        mComponentGroup.addComponent(new KeyedComponent(Arrays.asList("Aa=1", "BB=2"), "BB"));
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < mComponentGroup.getSpan(); i++) {
+            assertTrue(ids.add(mComponentGroup.getItemId(i)));
+        }
+    }
+
+    @Test
+    public void test_ItemIds_UniqueAcrossNestedGroups() {
+        ComponentGroup first = new ComponentGroup();
+        first.addComponent(new KeyedComponent(Arrays.asList("a=1")));
+        first.addComponent(new SimpleComponent<>(null, SimpleComponentViewHolder.class));
+        ComponentGroup second = new ComponentGroup();
+        second.addComponent(new KeyedComponent(Arrays.asList("a=1")));
+        second.addComponent(new SimpleComponent<>(null, SimpleComponentViewHolder.class));
+        mComponentGroup.addComponent(first);
+        mComponentGroup.addComponent(second);
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < mComponentGroup.getSpan(); i++) {
+            assertTrue(ids.add(mComponentGroup.getItemId(i)));
+        }
+        assertEquals(4, ids.size());
+    }
+
+    private static class KeyedComponent extends Component {
+
+        private final List<String> mData = new ArrayList<>();
+
+        @Nullable private final Object mComponentKey;
+
+        KeyedComponent(List<String> data) {
+            this(data, null);
+        }
+
+        KeyedComponent(List<String> data, @Nullable Object componentKey) {
+            mData.addAll(data);
+            mComponentKey = componentKey;
+        }
+
+        void setData(List<String> data) {
+            mData.clear();
+            mData.addAll(data);
+            notifyDataChanged();
+        }
+
+        @Override
+        public Object getPresenter(int position) {
+            return null;
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return mData.get(position);
+        }
+
+        @Override
+        public int getCount() {
+            return mData.size();
+        }
+
+        @Override
+        public Class<? extends ComponentViewHolder> getHolderType(int position) {
+            return TestComponentViewHolder.class;
+        }
+
+        @Override
+        public Object getItemKey(int position) {
+            return mData.get(position).split("=")[0];
+        }
+
+        @Override
+        public Object getComponentKey() {
+            return mComponentKey;
+        }
+    }
+
     public static List<Component> createMockComponents(int numComponents) {
         List<Component> components = new ArrayList<>(numComponents);
         for (int i = 0; i < numComponents; i++) {
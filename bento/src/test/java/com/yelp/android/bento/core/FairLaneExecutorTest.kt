@@ -0,0 +1,93 @@
+package com.yelp.android.bento.core
+
+import java.util.ArrayDeque
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class FairLaneExecutorTest {
+
+    private val executor = QueueExecutor()
+    private val lanes = FairLaneExecutor(executor)
+
+    @Test
+    fun lane_RunsTasksInOrder() {
+        val lane = lanes.newLane()
+        val ran = mutableListOf<Int>()
+        (1..5).forEach { i -> lane.execute { ran.add(i) } }
+
+        executor.runAll()
+
+        assertEquals(listOf(1, 2, 3, 4, 5), ran)
+    }
+
+    @Test
+    fun lanes_TakeTurns() {
+        val first = lanes.newLane()
+        val second = lanes.newLane()
+        val ran = mutableListOf<String>()
+        first.execute { ran.add("a1") }
+        first.execute { ran.add("a2") }
+        first.execute { ran.add("a3") }
+        second.execute { ran.add("b1") }
+
+        executor.runAll()
+
+        assertEquals(listOf("a1", "b1", "a2", "a3"), ran)
+    }
+
+    @Test
+    fun taskAddedByRunningTask_RunsAfterIt() {
+        val lane = lanes.newLane()
+        val ran = mutableListOf<Int>()
+        lane.execute {
+            lane.execute { ran.add(2) }
+            ran.add(1)
+        }
+
+        executor.runAll()
+
+        assertEquals(listOf(1, 2), ran)
+    }
+
+    @Test
+    fun lane_NeverRunsTwoTasksAtOnce() {
+        val pool = Executors.newFixedThreadPool(4)
+        val lane = FairLaneExecutor(pool).newLane()
+        val running = AtomicInteger()
+        val maxRunning = AtomicInteger()
+        val done = CountDownLatch(100)
+        repeat(100) {
+            lane.execute {
+                maxRunning.accumulateAndGet(running.incrementAndGet()) { a, b -> maxOf(a, b) }
+                Thread.sleep(1)
+                running.decrementAndGet()
+                done.countDown()
+            }
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS))
+        assertEquals(1, maxRunning.get())
+        pool.shutdown()
+    }
+
+    /** Runs its tasks in the order they were submitted, when told to. */
+    private class QueueExecutor : Executor {
+        private val tasks = ArrayDeque<Runnable>()
+
+        override fun execute(command: Runnable) {
+            tasks.add(command)
+        }
+
+        fun runAll() {
+            while (tasks.isNotEmpty()) {
+                tasks.poll().run()
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.yelp.android.bento.core
+
+import android.view.View
+import android.view.ViewGroup
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Test
+
+class ViewHolderFactoriesTest {
+
+    @After
+    fun tearDown() {
+        ViewHolderFactories.unregister(TestComponentViewHolder::class.java)
+    }
+
+    @Test
+    fun createWithoutFactory_UsesNoArgConstructor() {
+        val first = ViewHolderFactories.create(TestComponentViewHolder::class.java)
+        val second = ViewHolderFactories.create(TestComponentViewHolder::class.java)
+
+        assertEquals(TestComponentViewHolder::class.java, first.javaClass)
+        assertNotSame(first, second)
+    }
+
+    @Test
+    fun createWithFactory_UsesFactory() {
+        val viewHolder = TestComponentViewHolder()
+        ViewHolderFactories.register(TestComponentViewHolder::class.java) { viewHolder }
+
+        assertSame(viewHolder, ViewHolderFactories.create(TestComponentViewHolder::class.java))
+    }
+
+    @Test
+    fun createAfterUnregister_FallsBackToNoArgConstructor() {
+        val viewHolder = TestComponentViewHolder()
+        ViewHolderFactories.register(TestComponentViewHolder::class.java) { viewHolder }
+        ViewHolderFactories.unregister(TestComponentViewHolder::class.java)
+
+        assertNotSame(viewHolder, ViewHolderFactories.create(TestComponentViewHolder::class.java))
+    }
+
+    @Test(expected = RuntimeException::class)
+    fun createWithoutNoArgConstructor_Throws() {
+        ViewHolderFactories.create(ArgumentViewHolder::class.java)
+    }
+
+    class ArgumentViewHolder(private val text: String) : ComponentViewHolder<Nothing?, Nothing?>() {
+
+        override fun inflate(parent: ViewGroup): View = throw UnsupportedOperationException(text)
+
+        override fun bind(presenter: Nothing?, element: Nothing?) = Unit
+    }
+}
@@ -0,0 +1,53 @@
+package com.yelp.android.bento.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/** Unit tests for {@link ViewTypeRegistry}. */
+public class ViewTypeRegistryTest {
+
+    private ViewTypeRegistry<Object> mRegistry;
+
+    @Before
+    public void setup() {
+        mRegistry = new ViewTypeRegistry<>();
+    }
+
+    @Test
+    public void viewTypeOf_AssignsDenseViewTypesInOrder() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, mRegistry.viewTypeOf("key" + i));
+        }
+        assertEquals(42, mRegistry.viewTypeOf("key42"));
+        assertEquals("key42", mRegistry.keyOf(42));
+        assertEquals(100, mRegistry.size());
+    }
+
+    @Test
+    public void release_LastReference_KeepsViewType() {
+        int viewType = mRegistry.acquire("a");
+        mRegistry.acquire("a");
+        assertFalse(mRegistry.release("a"));
+        assertTrue(mRegistry.isInUse("a"));
+
+        assertTrue(mRegistry.release("a"));
+        assertFalse(mRegistry.isInUse("a"));
+        assertEquals(viewType, mRegistry.viewTypeOf("a"));
+        assertEquals(1, mRegistry.viewTypeOf("b"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void release_WithoutAcquire_Throws() {
+        mRegistry.viewTypeOf("a");
+        mRegistry.release("a");
+    }
+
+    @Test
+    public void shared_IsTheSameForAllCallers() {
+        assertTrue(ViewTypeRegistry.shared() == ViewTypeRegistry.shared());
+    }
+}
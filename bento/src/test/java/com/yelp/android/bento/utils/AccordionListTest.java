@@ -6,8 +6,12 @@ import static org.junit.Assert.assertTrue;
 
 import com.yelp.android.bento.utils.AccordionList.Range;
 import com.yelp.android.bento.utils.AccordionList.RangedValue;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Random;
 import org.junit.Test;
 
 /** Unit tests for {@link AccordionList}. */
@@ -244,4 +248,347 @@ public class AccordionListTest {
         assertFalse(iterator.hasNext());
         assertTrue(list.isEmpty());
     }
+
+    @Test
+    public void test_RemoveShifts() {
+        AccordionList<String> list = new AccordionList<>();
+        list.add("a", 1);
+        list.add("b", 2);
+        list.add("c", 3);
+        list.remove(1);
+        assertEquals(new RangedValue<>("a", new Range(0, 1)), list.get(0));
+        assertEquals(new RangedValue<>("c", new Range(1, 4)), list.get(1));
+        assertEquals(new Range(0, 4), list.span());
+    }
+
+    @Test
+    public void test_SetResizeShifts() {
+        AccordionList<String> list = new AccordionList<>();
+        list.add("a", 1);
+        list.add("b", 2);
+        list.add("c", 3);
+        list.set(0, "d", 4);
+        assertEquals(new RangedValue<>("d", new Range(0, 4)), list.rangedValueAt(3));
+        assertEquals(new RangedValue<>("b", new Range(4, 6)), list.rangedValueAt(4));
+        assertEquals(new RangedValue<>("c", new Range(6, 9)), list.rangedValueAt(8));
+    }
+
+    @Test
+    public void test_RangedValueAtSkipsEmptyEntries() {
+        AccordionList<String> list = new AccordionList<>();
+        list.add("a", 1);
+        list.add("b", 0);
+        list.add("c", 1);
+        assertEquals(new RangedValue<>("c", new Range(1, 2)), list.rangedValueAt(1));
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void test_RangedValueAtOutOfSpan() {
+        AccordionList<String> list = new AccordionList<>();
+        list.add("a", 1);
+        list.rangedValueAt(1);
+    }
+
+    @Test
+    public void test_FindFillsCursor() {
+        AccordionList<String> list = new AccordionList<>();
+        list.add("a", 2);
+        list.add("b", 0);
+        list.add("c", 3);
+        AccordionList.Cursor<String> cursor = new AccordionList.Cursor<>();
+
+        assertTrue(cursor == list.find(3, cursor));
+        assertEquals("c", cursor.mValue);
+        assertEquals(2, cursor.mEntryIndex);
+        assertEquals(2, cursor.mLower);
+        assertEquals(5, cursor.mUpper);
+        assertEquals(1, cursor.mOffset);
+
+        list.find(1, cursor);
+        assertEquals("a", cursor.mValue);
+        assertEquals(0, cursor.mEntryIndex);
+        assertEquals(0, cursor.mLower);
+        assertEquals(2, cursor.mUpper);
+        assertEquals(1, cursor.mOffset);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void test_FindOutOfSpan() {
+        AccordionList<String> list = new AccordionList<>();
+        list.add("a", 1);
+        list.find(1, new AccordionList.Cursor<String>());
+    }
+
+    @Test
+    public void test_RandomOperations_MatchReferenceList() {
+        Random random = new Random(42);
+        AccordionList<Integer> list = new AccordionList<>();
+        List<Integer> values = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+
+        for (int operation = 0; operation < 2000; operation++) {
+            int choice = random.nextInt(4);
+            if (choice < 2 || values.isEmpty()) {
+                int index = random.nextInt(values.size() + 1);
+                int size = random.nextInt(4);
+                list.add(index, operation, size);
+                values.add(index, operation);
+                sizes.add(index, size);
+            } else if (choice == 2) {
+                int index = random.nextInt(values.size());
+                int size = random.nextInt(4);
+                list.set(index, operation, size);
+                values.set(index, operation);
+                sizes.set(index, size);
+            } else {
+                int index = random.nextInt(values.size());
+                list.remove(index);
+                values.remove(index);
+                sizes.remove(index);
+            }
+            assertMatches(values, sizes, list);
+        }
+    }
+
+    @Test
+    public void test_AddAllInsertsInOrder() {
+        AccordionList<String> list = new AccordionList<>();
+        list.add("a", 1);
+        list.add("d", 1);
+
+        list.addAll(1, Arrays.asList("b", "c"), new int[] {2, 0});
+
+        assertEquals(4, list.size());
+        assertEquals(new RangedValue<>("b", new Range(1, 3)), list.get(1));
+        assertEquals(new RangedValue<>("c", new Range(3, 3)), list.get(2));
+        assertEquals(new RangedValue<>("d", new Range(3, 4)), list.get(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_AddAllMismatchedSizes() {
+        new AccordionList<String>().addAll(0, Arrays.asList("a", "b"), new int[] {1});
+    }
+
+    @Test
+    public void test_RemoveRangeShifts() {
+        AccordionList<String> list = new AccordionList<>();
+        list.addAll(0, Arrays.asList("a", "b", "c", "d"), new int[] {1, 2, 3, 4});
+
+        list.removeRange(1, 3);
+
+        assertEquals(2, list.size());
+        assertEquals(new RangedValue<>("d", new Range(1, 5)), list.get(1));
+        assertEquals("d", list.valueAt(1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void test_RemoveRangeOutOfBounds() {
+        AccordionList<String> list = new AccordionList<>();
+        list.add("a", 1);
+        list.removeRange(0, 2);
+    }
+
+    @Test
+    public void test_SetSizesShifts() {
+        AccordionList<String> list = new AccordionList<>();
+        list.addAll(0, Arrays.asList("a", "b", "c", "d"), new int[] {1, 1, 1, 1});
+
+        list.setSizes(1, new int[] {3, 0});
+
+        assertEquals(new Range(0, 5), list.span());
+        assertEquals(new RangedValue<>("b", new Range(1, 4)), list.get(1));
+        assertEquals(new RangedValue<>("c", new Range(4, 4)), list.get(2));
+        assertEquals(new RangedValue<>("d", new Range(4, 5)), list.rangedValueAt(4));
+    }
+
+    @Test
+    public void test_RandomBulkOperations_MatchReferenceList() {
+        Random random = new Random(1337);
+        AccordionList<Integer> list = new AccordionList<>();
+        List<Integer> values = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+
+        for (int operation = 0; operation < 500; operation++) {
+            int choice = random.nextInt(3);
+            if (choice == 0 || values.isEmpty()) {
+                int index = random.nextInt(values.size() + 1);
+                int count = random.nextInt(20);
+                List<Integer> added = new ArrayList<>();
+                int[] addedSizes = new int[count];
+                for (int i = 0; i < count; i++) {
+                    added.add(operation * 100 + i);
+                    addedSizes[i] = random.nextInt(4);
+                    sizes.add(index + i, addedSizes[i]);
+                }
+                list.addAll(index, added, addedSizes);
+                values.addAll(index, added);
+            } else if (choice == 1) {
+                int from = random.nextInt(values.size() + 1);
+                int to = from + random.nextInt(values.size() - from + 1);
+                list.removeRange(from, to);
+                values.subList(from, to).clear();
+                sizes.subList(from, to).clear();
+            } else {
+                int from = random.nextInt(values.size() + 1);
+                int[] newSizes = new int[random.nextInt(values.size() - from + 1)];
+                for (int i = 0; i < newSizes.length; i++) {
+                    newSizes[i] = random.nextInt(4);
+                    sizes.set(from + i, newSizes[i]);
+                }
+                list.setSizes(from, newSizes);
+            }
+            assertMatches(values, sizes, list);
+        }
+    }
+
+    @Test
+    public void test_SnapshotUnaffectedByLaterChanges() {
+        AccordionList<String> list = new AccordionList<>();
+        list.addAll(0, Arrays.asList("a", "b", "c"), new int[] {1, 2, 3});
+        AccordionList.Snapshot<String> snapshot = list.snapshot();
+
+        list.remove(0);
+        list.set(0, "d", 5);
+        list.add("e", 1);
+
+        assertEquals(3, snapshot.size());
+        assertEquals(new Range(0, 6), snapshot.span());
+        assertEquals(new RangedValue<>("b", new Range(1, 3)), snapshot.get(1));
+        assertEquals(new RangedValue<>("c", new Range(3, 6)), snapshot.rangedValueAt(5));
+        assertEquals("a", snapshot.valueAt(0));
+        assertEquals(new RangedValue<>("d", new Range(0, 5)), list.get(0));
+
+        List<RangedValue<String>> entries = new ArrayList<>();
+        for (RangedValue<String> entry : snapshot) {
+            entries.add(entry);
+        }
+        assertEquals(
+                Arrays.asList(
+                        new RangedValue<>("a", new Range(0, 1)),
+                        new RangedValue<>("b", new Range(1, 3)),
+                        new RangedValue<>("c", new Range(3, 6))),
+                entries);
+    }
+
+    @Test
+    public void test_SnapshotReusedUntilModified() {
+        AccordionList<String> list = new AccordionList<>();
+        list.add("a", 1);
+        AccordionList.Snapshot<String> snapshot = list.snapshot();
+
+        list.valueAt(0);
+        assertTrue(snapshot == list.snapshot());
+
+        list.clear();
+        assertFalse(snapshot == list.snapshot());
+        assertTrue(list.snapshot().isEmpty());
+        assertEquals("a", snapshot.valueAt(0));
+    }
+
+    @Test
+    public void test_HandlesFollowEntries() {
+        Random random = new Random(3);
+        AccordionList<Integer> list = new AccordionList<>();
+        List<Integer> values = new ArrayList<>();
+        List<Integer> handles = new ArrayList<>();
+
+        for (int operation = 0; operation < 2000; operation++) {
+            if (random.nextInt(3) > 0 || values.isEmpty()) {
+                int index = random.nextInt(values.size() + 1);
+                list.add(index, operation, random.nextInt(3));
+                values.add(index, operation);
+                handles.add(index, list.handleAt(index));
+            } else {
+                int index = random.nextInt(values.size());
+                list.remove(index);
+                values.remove(index);
+                handles.remove(index);
+            }
+
+            for (int i = 0; i < handles.size(); i++) {
+                assertEquals(i, list.indexOfHandle(handles.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void test_SequentialLookups_HitFinger() {
+        AccordionList<Integer> list = new AccordionList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(i, i % 3);
+        }
+        list.resetFingerStats();
+
+        for (int location = 0; location < list.span().mUpper; location++) {
+            list.valueAt(location);
+        }
+        for (int location = list.span().mUpper - 1; location >= 0; location--) {
+            list.valueAt(location);
+        }
+
+        // Only the very first lookup has to search from the root.
+        assertEquals(1, list.getFingerMissCount());
+        assertEquals(2 * list.span().mUpper - 1, list.getFingerHitCount());
+    }
+
+    @Test
+    public void test_Modification_InvalidatesFinger() {
+        AccordionList<String> list = new AccordionList<>();
+        list.add("a", 2);
+        list.add("b", 2);
+        assertEquals("b", list.valueAt(2));
+
+        list.add(0, "c", 3);
+        assertEquals(new RangedValue<>("a", new Range(3, 5)), list.rangedValueAt(3));
+        list.set(0, "c", 1);
+        assertEquals(new RangedValue<>("b", new Range(3, 5)), list.rangedValueAt(3));
+        list.remove(1);
+        assertEquals(new RangedValue<>("b", new Range(1, 3)), list.rangedValueAt(2));
+        list.clear();
+        list.add("d", 1);
+        assertEquals("d", list.valueAt(0));
+    }
+
+    @Test
+    public void test_RandomLookups_MatchReferenceList() {
+        Random random = new Random(7);
+        AccordionList<Integer> list = new AccordionList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int size = random.nextInt(4);
+            list.add(i, size);
+            for (int j = 0; j < size; j++) {
+                owners.add(i);
+            }
+        }
+
+        int location = 0;
+        for (int lookup = 0; lookup < 5000; lookup++) {
+            // Mostly small jumps around the previous location, sometimes anywhere.
+            if (random.nextInt(10) == 0) {
+                location = random.nextInt(owners.size());
+            } else {
+                location += random.nextInt(9) - 4;
+                location = Math.max(0, Math.min(owners.size() - 1, location));
+            }
+            assertEquals(owners.get(location), list.valueAt(location));
+        }
+        assertEquals(5000, list.getFingerHitCount() + list.getFingerMissCount());
+    }
+
+    private static void assertMatches(
+            List<Integer> values, List<Integer> sizes, AccordionList<Integer> list) {
+        assertEquals(values.size(), list.size());
+        int lower = 0;
+        for (int i = 0; i < values.size(); i++) {
+            RangedValue<Integer> expected =
+                    new RangedValue<>(values.get(i), new Range(lower, lower + sizes.get(i)));
+            assertEquals(expected, list.get(i));
+            for (int location = lower; location < lower + sizes.get(i); location++) {
+                assertEquals(expected, list.rangedValueAt(location));
+            }
+            lower += sizes.get(i);
+        }
+        assertEquals(new Range(0, lower), list.span());
+    }
 }
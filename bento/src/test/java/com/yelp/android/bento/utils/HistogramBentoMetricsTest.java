@@ -0,0 +1,54 @@
+package com.yelp.android.bento.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.yelp.android.bento.components.SimpleComponent;
+import com.yelp.android.bento.core.TestComponentViewHolder;
+import com.yelp.android.bento.utils.BentoMetrics.Event;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Unit tests for {@link HistogramBentoMetrics}. */
+public class HistogramBentoMetricsTest {
+
+    private HistogramBentoMetrics mMetrics;
+
+    @Before
+    public void setup() {
+        mMetrics = new HistogramBentoMetrics();
+    }
+
+    @Test
+    public void events_AreKeyedByViewHolderAndComponentType() {
+        mMetrics.onViewHolderEvent(Event.INFLATE, TestComponentViewHolder.class, null, 500);
+        mMetrics.onViewHolderEvent(
+                Event.BIND, TestComponentViewHolder.class, SimpleComponent.class, 100);
+        mMetrics.onViewHolderEvent(
+                Event.BIND, TestComponentViewHolder.class, SimpleComponent.class, 300);
+
+        assertEquals(
+                500,
+                mMetrics.getViewHolderHistogram(Event.INFLATE, TestComponentViewHolder.class)
+                        .getMax());
+        assertEquals(
+                200,
+                mMetrics.getViewHolderHistogram(Event.BIND, TestComponentViewHolder.class)
+                        .getAverage());
+        assertEquals(
+                2, mMetrics.getComponentHistogram(Event.BIND, SimpleComponent.class).getCount());
+        assertNull(mMetrics.getComponentHistogram(Event.INFLATE, SimpleComponent.class));
+        assertNull(mMetrics.getViewHolderHistogram(Event.RECYCLE, TestComponentViewHolder.class));
+    }
+
+    @Test
+    public void reset_ForgetsTimingsButKeepsTypes() {
+        mMetrics.onViewHolderEvent(
+                Event.ATTACH, TestComponentViewHolder.class, SimpleComponent.class, 100);
+        mMetrics.reset();
+
+        assertNull(mMetrics.getViewHolderHistogram(Event.ATTACH, TestComponentViewHolder.class));
+        assertEquals(1, mMetrics.getViewHolderTypes().size());
+        assertEquals(1, mMetrics.getComponentTypes().size());
+    }
+}
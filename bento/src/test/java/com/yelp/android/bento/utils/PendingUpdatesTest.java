@@ -0,0 +1,110 @@
+package com.yelp.android.bento.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+/** Unit tests for {@link PendingUpdates}. */
+public class PendingUpdatesTest {
+
+    private PendingUpdates mPendingUpdates;
+    private ListUpdateCallback mCallback;
+
+    @Before
+    public void setup() {
+        mPendingUpdates = new PendingUpdates();
+        mCallback = mock(ListUpdateCallback.class);
+    }
+
+    @Test
+    public void adjacentAndOverlappingRanges_AreMerged() {
+        mPendingUpdates.onInserted(0, 1);
+        mPendingUpdates.onInserted(1, 2);
+        mPendingUpdates.onChanged(10, 5, null);
+        mPendingUpdates.onChanged(12, 5, null);
+        mPendingUpdates.onChanged(17, 1, null);
+        mPendingUpdates.dispatchTo(mCallback);
+
+        InOrder inOrder = inOrder(mCallback);
+        inOrder.verify(mCallback).onInserted(0, 3);
+        inOrder.verify(mCallback).onChanged(10, 8, null);
+        verifyNoMoreInteractions(mCallback);
+    }
+
+    @Test
+    public void dispatch_KeepsOrderAndClears() {
+        mPendingUpdates.onRemoved(4, 1);
+        mPendingUpdates.onMoved(0, 2);
+        mPendingUpdates.onInserted(1, 1);
+        assertTrue(mPendingUpdates.isPending());
+
+        mPendingUpdates.dispatchTo(mCallback);
+
+        InOrder inOrder = inOrder(mCallback);
+        inOrder.verify(mCallback).onRemoved(4, 1);
+        inOrder.verify(mCallback).onMoved(0, 2);
+        inOrder.verify(mCallback).onInserted(1, 1);
+        assertFalse(mPendingUpdates.isPending());
+
+        mPendingUpdates.dispatchTo(mCallback);
+        verifyNoMoreInteractions(mCallback);
+    }
+
+    @Test
+    public void dataChanged_DropsIndividualChanges() {
+        mPendingUpdates.onInserted(0, 1);
+        mPendingUpdates.onDataChanged();
+        mPendingUpdates.onRemoved(0, 1);
+
+        assertTrue(mPendingUpdates.isDataChanged());
+        mPendingUpdates.dispatchTo(mCallback);
+        verifyNoInteractions(mCallback);
+        assertFalse(mPendingUpdates.isDataChanged());
+    }
+
+    @Test
+    public void toCurrentPosition_FollowsItemsThroughChanges() {
+        mPendingUpdates.onInserted(0, 2);
+        mPendingUpdates.onRemoved(4, 1);
+        mPendingUpdates.onMoved(6, 2);
+        mPendingUpdates.onChanged(0, 10, null);
+
+        // Before: 0 1 2 3 4 5. After the insertion: a b 0 1 2 3 4 5. After the removal:
+        // a b 0 1 3 4 5. After the move: a b 5 0 1 3 4.
+        assertEquals(3, mPendingUpdates.toCurrentPosition(0));
+        assertEquals(4, mPendingUpdates.toCurrentPosition(1));
+        assertEquals(RecyclerView.NO_POSITION, mPendingUpdates.toCurrentPosition(2));
+        assertEquals(5, mPendingUpdates.toCurrentPosition(3));
+        assertEquals(6, mPendingUpdates.toCurrentPosition(4));
+        assertEquals(2, mPendingUpdates.toCurrentPosition(5));
+    }
+
+    @Test
+    public void toCurrentPosition_AfterDataChanged_IsNoPosition() {
+        mPendingUpdates.onDataChanged();
+
+        assertEquals(RecyclerView.NO_POSITION, mPendingUpdates.toCurrentPosition(0));
+    }
+
+    @Test
+    public void changesWithDifferentPayloads_AreNotMerged() {
+        Object payload = new Object();
+        mPendingUpdates.onChanged(0, 1, payload);
+        mPendingUpdates.onChanged(1, 1, null);
+        mPendingUpdates.dispatchTo(mCallback);
+
+        verify(mCallback).onChanged(0, 1, payload);
+        verify(mCallback).onChanged(1, 1, null);
+    }
+}
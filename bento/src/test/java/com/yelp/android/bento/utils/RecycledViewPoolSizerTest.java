@@ -0,0 +1,146 @@
+package com.yelp.android.bento.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import androidx.recyclerview.widget.RecyclerView.RecycledViewPool;
+import java.lang.ref.WeakReference;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Unit tests for {@link RecycledViewPoolSizer}. */
+public class RecycledViewPoolSizerTest {
+
+    private RecycledViewPool mPool;
+    private RecycledViewPoolSizer mSizer;
+
+    @Before
+    public void setup() {
+        mPool = mock(RecycledViewPool.class);
+        mSizer = RecycledViewPoolSizer.of(mPool);
+    }
+
+    @Test
+    public void of_ReturnsOneSizerPerPool() {
+        assertSame(mSizer, RecycledViewPoolSizer.of(mPool));
+    }
+
+    @Test
+    public void droppedPool_CanBeGarbageCollected() {
+        RecycledViewPool pool = mock(RecycledViewPool.class);
+        RecycledViewPoolSizer.of(pool);
+        WeakReference<RecycledViewPool> reference = new WeakReference<>(pool);
+
+        pool = null;
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+        }
+
+        assertNull(reference.get());
+    }
+
+    @Test
+    public void attachUpToDefaultCapacity_KeepsDefaultCapacity() {
+        attach(3, RecycledViewPoolSizer.DEFAULT_CAPACITY);
+
+        assertEquals(RecycledViewPoolSizer.DEFAULT_CAPACITY, mSizer.getCapacity(3));
+        verify(mPool, never()).setMaxRecycledViews(anyInt(), anyInt());
+    }
+
+    @Test
+    public void attachMoreThanDefaultCapacity_GrowsCapacityToPeak() {
+        attach(3, 12);
+        for (int i = 0; i < 12; i++) {
+            mSizer.onViewDetached(3);
+        }
+        attach(3, 8);
+
+        assertEquals(12, mSizer.getCapacity(3));
+        assertEquals(RecycledViewPoolSizer.DEFAULT_CAPACITY, mSizer.getCapacity(2));
+        verify(mPool).setMaxRecycledViews(3, 12);
+        verify(mPool, never()).setMaxRecycledViews(3, 13);
+    }
+
+    @Test
+    public void capacityHint_GrowsCapacityButNeverShrinksIt() {
+        mSizer.setCapacityHint(40, 20);
+        mSizer.setCapacityHint(40, 10);
+
+        assertEquals(20, mSizer.getCapacity(40));
+        verify(mPool).setMaxRecycledViews(40, 20);
+        verify(mPool, never()).setMaxRecycledViews(40, 10);
+    }
+
+    @Test
+    public void viewTypeUnused_DropsViewsOfTypeFromOwnPoolOnly() {
+        RecycledViewPool otherPool = mock(RecycledViewPool.class);
+        RecycledViewPoolSizer.of(otherPool);
+
+        mSizer.onViewTypeUnused(7);
+
+        verify(mPool).setMaxRecycledViews(7, 0);
+        verify(otherPool, never()).setMaxRecycledViews(anyInt(), anyInt());
+    }
+
+    @Test
+    public void capacityHint_AfterViewTypeUnused_RestoresCapacity() {
+        attach(7, 9);
+        mSizer.onViewTypeUnused(7);
+
+        mSizer.setCapacityHint(7, 1);
+        mSizer.setCapacityHint(7, 1);
+
+        assertEquals(9, mSizer.getCapacity(7));
+        verify(mPool, times(2)).setMaxRecycledViews(7, 9);
+    }
+
+    @Test
+    public void copyCapacitiesTo_CarriesPeaksAndHintsOver() {
+        RecycledViewPool otherPool = mock(RecycledViewPool.class);
+        attach(2, 8);
+        mSizer.setCapacityHint(5, 20);
+
+        mSizer.copyCapacitiesTo(otherPool);
+
+        RecycledViewPoolSizer otherSizer = RecycledViewPoolSizer.of(otherPool);
+        assertEquals(8, otherSizer.getCapacity(2));
+        assertEquals(20, otherSizer.getCapacity(5));
+        assertEquals(RecycledViewPoolSizer.DEFAULT_CAPACITY, otherSizer.getCapacity(3));
+        verify(otherPool).setMaxRecycledViews(2, 8);
+        verify(otherPool).setMaxRecycledViews(5, 20);
+    }
+
+    @Test
+    public void detachWithoutAttach_IsIgnored() {
+        mSizer.onViewDetached(1);
+        attach(1, RecycledViewPoolSizer.DEFAULT_CAPACITY + 1);
+
+        verify(mPool).setMaxRecycledViews(1, RecycledViewPoolSizer.DEFAULT_CAPACITY + 1);
+    }
+
+    @Test
+    public void hitRate_CountsReusedViewHolders() {
+        assertEquals(0f, mSizer.getHitRate(), 0f);
+
+        mSizer.onViewHolderCreated();
+        mSizer.onViewHolderReused();
+        mSizer.onViewHolderReused();
+        mSizer.onViewHolderReused();
+
+        assertEquals(3, mSizer.getHitCount());
+        assertEquals(1, mSizer.getMissCount());
+        assertEquals(75f, mSizer.getHitRate(), 0f);
+    }
+
+    private void attach(int viewType, int count) {
+        for (int i = 0; i < count; i++) {
+            mSizer.onViewAttached(viewType);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.yelp.android.bento.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Unit tests for {@link TimingHistogram}. */
+public class TimingHistogramTest {
+
+    private TimingHistogram mHistogram;
+
+    @Before
+    public void setup() {
+        mHistogram = new TimingHistogram();
+    }
+
+    @Test
+    public void empty_ReportsZeros() {
+        assertEquals(0, mHistogram.getCount());
+        assertEquals(0, mHistogram.getMin());
+        assertEquals(0, mHistogram.getMax());
+        assertEquals(0, mHistogram.getAverage());
+        assertEquals(0, mHistogram.getPercentile(95));
+    }
+
+    @Test
+    public void record_TracksExactMinMaxAndAverage() {
+        mHistogram.record(3_000);
+        mHistogram.record(1_000);
+        mHistogram.record(8_000);
+
+        assertEquals(3, mHistogram.getCount());
+        assertEquals(1_000, mHistogram.getMin());
+        assertEquals(8_000, mHistogram.getMax());
+        assertEquals(4_000, mHistogram.getAverage());
+        assertEquals(12_000, mHistogram.getTotal());
+    }
+
+    @Test
+    public void percentiles_AreWithinBucketPrecision() {
+        Random random = new Random(11);
+        long[] durations = new long[10_000];
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = 1 + (long) (Math.abs(random.nextGaussian()) * 5_000_000);
+            mHistogram.record(durations[i]);
+        }
+        Arrays.sort(durations);
+
+        for (int percentile : new int[] {1, 50, 95, 99, 100}) {
+            long expected = durations[(int) Math.ceil(durations.length * percentile / 100.0) - 1];
+            long actual = mHistogram.getPercentile(percentile);
+            assertTrue(actual >= expected);
+            assertTrue(actual <= expected + expected / 8 + 1);
+        }
+    }
+
+    @Test
+    public void record_HandlesExtremeDurations() {
+        mHistogram.record(-5);
+        mHistogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, mHistogram.getMin());
+        assertEquals(0, mHistogram.getPercentile(50));
+        assertEquals(Long.MAX_VALUE, mHistogram.getPercentile(100));
+    }
+
+    @Test
+    public void reset_ForgetsEverything() {
+        mHistogram.record(100);
+        mHistogram.reset();
+
+        assertEquals(0, mHistogram.getCount());
+        assertEquals(0, mHistogram.getMax());
+        assertEquals(0, mHistogram.getPercentile(50));
+    }
+}
@@ -0,0 +1,132 @@
+package com.yelp.android.bento.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Unit tests for {@link ViewTypeTable}. */
+public class ViewTypeTableTest {
+
+    private ViewTypeTable mTable;
+
+    @Before
+    public void setup() {
+        mTable = new ViewTypeTable();
+        mTable.reset(5);
+        for (int i = 0; i < 5; i++) {
+            mTable.set(i, i * 10);
+        }
+    }
+
+    @Test
+    public void insert_ShiftsResolvedTypesAndLeavesNewPositionsUnresolved() {
+        mTable.onInserted(2, 3);
+
+        assertEquals(8, mTable.size());
+        assertEquals(10, mTable.get(1));
+        assertFalse(mTable.isResolved(2));
+        assertFalse(mTable.isResolved(4));
+        assertEquals(20, mTable.get(5));
+        assertEquals(40, mTable.get(7));
+    }
+
+    @Test
+    public void remove_ShiftsResolvedTypes() {
+        mTable.onRemoved(1, 2);
+
+        assertEquals(3, mTable.size());
+        assertEquals(0, mTable.get(0));
+        assertEquals(30, mTable.get(1));
+        assertEquals(40, mTable.get(2));
+        assertFalse(mTable.isResolved(3));
+    }
+
+    @Test
+    public void change_UnresolvesChangedPositionsOnly() {
+        mTable.onChanged(1, 2, null);
+
+        assertTrue(mTable.isResolved(0));
+        assertFalse(mTable.isResolved(1));
+        assertFalse(mTable.isResolved(2));
+        assertTrue(mTable.isResolved(3));
+    }
+
+    @Test
+    public void reset_UnresolvesEverything() {
+        mTable.reset(100);
+
+        assertEquals(100, mTable.size());
+        for (int i = 0; i < 100; i++) {
+            assertFalse(mTable.isResolved(i));
+        }
+    }
+
+    @Test
+    public void randomUpdates_MatchList() {
+        Random random = new Random(7);
+        List<Integer> expected = new ArrayList<>(Collections.nCopies(5, (Integer) null));
+        mTable.reset(5);
+        int nextType = 0;
+        for (int i = 0; i < 2000; i++) {
+            int size = expected.size();
+            switch (random.nextInt(5)) {
+                case 0:
+                    int insertPosition = random.nextInt(size + 1);
+                    int insertCount = 1 + random.nextInt(40);
+                    expected.addAll(
+                            insertPosition, Collections.nCopies(insertCount, (Integer) null));
+                    mTable.onInserted(insertPosition, insertCount);
+                    break;
+                case 1:
+                    if (size > 0) {
+                        int removePosition = random.nextInt(size);
+                        int removeCount = 1 + random.nextInt(size - removePosition);
+                        expected.subList(removePosition, removePosition + removeCount).clear();
+                        mTable.onRemoved(removePosition, removeCount);
+                    }
+                    break;
+                case 2:
+                    if (size > 0) {
+                        int from = random.nextInt(size);
+                        int to = random.nextInt(size);
+                        expected.add(to, expected.remove(from));
+                        mTable.onMoved(from, to);
+                    }
+                    break;
+                case 3:
+                    if (size > 0) {
+                        int changePosition = random.nextInt(size);
+                        int changeCount = 1 + random.nextInt(size - changePosition);
+                        for (int j = changePosition; j < changePosition + changeCount; j++) {
+                            expected.set(j, null);
+                        }
+                        mTable.onChanged(changePosition, changeCount, null);
+                    }
+                    break;
+                default:
+                    if (size > 0) {
+                        int position = random.nextInt(size);
+                        expected.set(position, nextType);
+                        mTable.set(position, nextType++);
+                    }
+                    break;
+            }
+
+            assertEquals(expected.size(), mTable.size());
+            for (int j = 0; j < expected.size(); j++) {
+                Integer viewType = expected.get(j);
+                assertEquals(viewType != null, mTable.isResolved(j));
+                if (viewType != null) {
+                    assertEquals((int) viewType, mTable.get(j));
+                }
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ object Versions {
     // In alphabetical order.
     const val APACHE_COMMONS = "3.7"
     const val ANDROID_GRADLE = "8.0.2"
+    const val ANDROID_X_ANNOTATION = "1.3.0"
     const val ANDROID_X_APP_COMPAT = "1.3.1"
     const val ANDROID_X_CONSTRAINT_LAYOUT = "2.0.1"
     const val ANDROID_X_CORE_CTX = "1.4.0"
@@ -34,6 +35,7 @@ object Versions {
     const val ESPRESSO = "3.5.0"
     const val GRADLE = "8.3.0"
     const val GUAVA = "28.1-android"
+    const val JMH = "1.37"
     const val JUNIT = "4.12"
     const val KOTLIN = "1.8.21"
     const val MAVEN_SETTINGS = "0.5"
@@ -66,6 +68,7 @@ object PublishLibs {
 }
 
 object SupportLibs {
+    const val ANNOTATION = "androidx.annotation:annotation:${Versions.ANDROID_X_ANNOTATION}"
     const val APP_COMPAT = "androidx.appcompat:appcompat:${Versions.ANDROID_X_APP_COMPAT}"
     const val CONSTRAINT_LAYOUT = "androidx.constraintlayout:constraintlayout:${Versions.ANDROID_X_CONSTRAINT_LAYOUT}"
     const val DESIGN = "com.google.android.material:material:${Versions.ANDROID_X_MATERIAL}"